@@ -1,5 +1,6 @@
 package net.datastructures;
 import java.util.Comparator;
+import java.util.Iterator;
 
 //begin#fragment AVLTree
 /**  Implementation of an AVL tree. */
@@ -16,6 +17,10 @@ public class AVLTree<K,V>
   extends BinarySearchTree<K,V> implements Dictionary<K,V> {
   public AVLTree(Comparator<K> c)  { super(c); }
   public AVLTree() { super(); }
+//end#fragment AVLTree
+  /** Cached snapshot of the current contents, or null if stale. */
+  protected PersistentAVLTree<K,V> snapshot;
+//begin#fragment AVLTree
   /** Nested class for the nodes of an AVL tree. */ 
   protected static class AVLNode<K,V> extends BTNode<Entry<K,V>> {
     protected int height;  // we add a height field to a BTNode
@@ -100,6 +105,7 @@ public class AVLTree<K,V>
   public Entry<K,V> insert(K k, V v) throws InvalidKeyException  {
     Entry<K,V> toReturn = super.insert(k, v); // calls our createNode method
     rebalance(actionPos); // rebalance up from the insertion position
+    snapshot = null;
     return toReturn;
   }
 //end#fragment AVLTree2
@@ -109,7 +115,67 @@ public class AVLTree<K,V>
     Entry<K,V> toReturn = super.remove(ent);
     if (toReturn != null)   // we actually removed something
       rebalance(actionPos);  // rebalance up the tree
+    snapshot = null;
     return toReturn;
   }
+//end#fragment AVLTree2
+  /** Rebuilds the tree in balanced shape (overrides super's version). */
+  protected void rebuild(BSTEntry<K,V>[] sorted, boolean parallel) {
+    super.rebuild(sorted, parallel);
+    snapshot = null;
+  }
+  /** Returns the height of the tree in O(1) time. */
+  protected int treeHeight() {
+    return height(root());
+  }
+  /** Builds an AVL tree, with the default comparator, from entries
+    * given in nondecreasing key order, in O(n) time. */
+  public static <K,V> AVLTree<K,V> fromSorted(Iterator<Entry<K,V>> it)
+    throws InvalidKeyException {
+    return fromSorted(it, new DefaultComparator<K>(), false);
+  }
+  /**
+    * Builds an AVL tree, with the given comparator, from entries given
+    * in nondecreasing key order, in O(n) time.  The tree is perfectly
+    * balanced and the heights are set as the nodes are created.  If
+    * <tt>parallel</tt> is true, large inputs are built with fork-join
+    * tasks.
+    * @throws InvalidKeyException if a key is invalid or out of order
+    */
+  public static <K,V> AVLTree<K,V> fromSorted(Iterator<Entry<K,V>> it,
+      Comparator<K> c, boolean parallel) throws InvalidKeyException {
+    AVLTree<K,V> tree = new AVLTree<K,V>(c);
+    tree.buildFromSorted(it, parallel);	// AVLNodes compute their own heights
+    return tree;
+  }
+  /**
+    * Returns an immutable view of the current contents of the tree.
+    * The first call after an update copies the whole tree's (already
+    * balanced) shape in O(n) time; further calls return the same
+    * snapshot in O(1) time until the tree is updated again.  So
+    * snapshots are cheap only when they are taken much less often than
+    * the tree is updated; to share structure between every version,
+    * update a {@link PersistentAVLTree} directly instead.  New versions
+    * derived from the snapshot share its untouched subtrees.  The
+    * snapshot contains the very entries stored in this tree.
+    *
+    * <p>Like the updates, this method must only be called by the
+    * writer thread (or under the writer's lock), since it reads the
+    * tree and the cached snapshot without synchronization.  The
+    * snapshot it returns may then be read by any number of threads.
+    */
+  public PersistentAVLTree<K,V> snapshot() {
+    if (snapshot == null)
+      snapshot = new PersistentAVLTree<K,V>(C, copy(root), numEntries);
+    return snapshot;
+  }
+  /** Copies the subtree rooted at v into immutable nodes. */
+  protected PersistentAVLTree.Node<K,V> copy(BTPosition<Entry<K,V>> v) {
+    if (v == null || v.element() == null)	// external node
+      return null;
+    return new PersistentAVLTree.Node<K,V>(v.element(),
+	copy(v.getLeft()), copy(v.getRight()));
+  }
+//begin#fragment AVLTree2
 } // end of AVLTree class
 //end#fragment AVLTree2
@@ -0,0 +1,92 @@
+package net.datastructures;
+
+/**
+ * Implementation of the queue ADT using a circular array, so unlike
+ * {@link NodeQueue} it creates no object per enqueued element.  The
+ * length of the array is a power of two, so the indices wrap around by
+ * masking rather than by division, and the array doubles when an
+ * enqueue finds it full, so each operation takes O(1) amortized time.
+ *
+ * @see CircularArrayDeque
+ * @see IntArrayQueue
+ */
+public class ArrayQueue<E> implements Queue<E> {
+  /** Default initial length of the array. */
+  public static final int CAPACITY = 16;
+  /** Largest length of the array: the largest power of two that is a
+    * valid array length. */
+  public static final int MAX_CAPACITY = 1 << 30;
+  protected E[] Q;		// circular array of elements
+  protected int head = 0;	// index of the front element
+  protected int n = 0;		// number of elements
+  /** Creates an empty queue with an array of default length. */
+  public ArrayQueue() { this(CAPACITY); }
+  /** Creates an empty queue with an array long enough for cap elements.
+    * @throws IllegalArgumentException if cap is less than 1 */
+  public ArrayQueue(int cap) {
+    Q = (E[]) new Object[ceilPowerOfTwo(cap)];
+  }
+  /** Returns the number of elements in the queue. */
+  public int size() { return n; }
+  /** Returns whether the queue is empty. */
+  public boolean isEmpty() { return n == 0; }
+  /** Returns the element at the front of the queue. */
+  public E front() throws EmptyQueueException {
+    if (n == 0)
+      throw new EmptyQueueException("Queue is empty.");
+    return Q[head];
+  }
+  /** Inserts an element at the rear of the queue.
+    * @throws CapacityExceededException if the queue already holds 2^30 elements */
+  public void enqueue(E element) {
+    if (n == Q.length)
+      grow();
+    Q[(head + n++) & (Q.length - 1)] = element;
+  }
+  /** Removes and returns the element at the front of the queue. */
+  public E dequeue() throws EmptyQueueException {
+    if (n == 0)
+      throw new EmptyQueueException("Queue is empty.");
+    E element = Q[head];
+    Q[head] = null;		// dereference for garbage collection
+    head = (head + 1) & (Q.length - 1);
+    n--;
+    return element;
+  }
+  /** Removes all the elements. */
+  public void clear() {
+    for (int i = 0; i < n; i++)
+      Q[(head + i) & (Q.length - 1)] = null;
+    head = n = 0;
+  }
+  /** Returns a string representation of the queue, front first. */
+  public String toString() {
+    StringBuilder s = new StringBuilder("[");
+    for (int i = 0; i < n; i++) {
+      if (i > 0) s.append(", ");
+      s.append(Q[(head + i) & (Q.length - 1)]);
+    }
+    return s.append("]").toString();
+  }
+  /** Doubles the array, moving the elements to its start.
+    * @throws CapacityExceededException if the array already has the maximum
+    * length, MAX_CAPACITY */
+  protected void grow() throws CapacityExceededException {
+    if (Q.length == MAX_CAPACITY)
+      throw new CapacityExceededException("Queue has reached its maximum capacity");
+    E[] a = (E[]) new Object[2 * Q.length];
+    int k = Q.length - head;	// elements from head to the end of Q
+    System.arraycopy(Q, head, a, 0, k);
+    System.arraycopy(Q, 0, a, k, head);
+    Q = a;
+    head = 0;
+  }
+  /** Returns the smallest power of two that is at least cap.
+    * @throws IllegalArgumentException if cap is less than 1 or more
+    * than MAX_CAPACITY */
+  protected static int ceilPowerOfTwo(int cap) {
+    if (cap < 1 || cap > MAX_CAPACITY)
+      throw new IllegalArgumentException("Capacity out of range");
+    return (cap == 1) ? 1 : Integer.highestOneBit(cap - 1) << 1;
+  }
+}
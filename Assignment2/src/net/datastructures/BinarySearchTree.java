@@ -1,5 +1,10 @@
 package net.datastructures;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
   * Realization of a dictionary by means of a binary search tree.
@@ -17,6 +22,9 @@ public class BinarySearchTree<K,V>
   protected Position<Entry<K,V>> 
               actionPos; // insert node or removed node's parent
   protected int numEntries = 0;	// number of entries
+//end#fragment BinarySearchTree
+  protected TreeMetrics metrics;	// null unless metrics are enabled
+//begin#fragment BinarySearchTree
   /** Creates a BinarySearchTree with a default comparator. */
   public BinarySearchTree()  { 
     C = new DefaultComparator<K>(); 
@@ -133,6 +141,9 @@ protected void addAll(PositionList<Entry<K,V>> L,
     checkKey(key);		// may throw an InvalidKeyException
     Position<Entry<K,V>> curPos = treeSearch(key, root());
     actionPos = curPos;		// node where the search ended
+    //end#fragment BinarySearchTree3
+    if (metrics != null) metrics.recordSearch(depth(curPos));
+    //begin#fragment BinarySearchTree3
     if (isInternal(curPos)) return entry(curPos);
     return null;
   }
@@ -151,10 +162,21 @@ protected void addAll(PositionList<Entry<K,V>> L,
   //begin#fragment BinarySearchTree3
   public Entry<K,V> insert(K k, V x) throws InvalidKeyException {
     checkKey(k);	// may throw an InvalidKeyException
-    Position<Entry<K,V>> insPos = treeSearch(k, root());
+    //end#fragment BinarySearchTree3
+    Position<Entry<K,V>> finger = actionPos, start = insertionStart(k);
+    //begin#fragment BinarySearchTree3
+    Position<Entry<K,V>> insPos = treeSearch(k, start);
     while (!isExternal(insPos))  // iterative search for insertion position
       insPos = treeSearch(k, left(insPos));
     actionPos = insPos;	// node where the new entry is being inserted
+    //end#fragment BinarySearchTree3
+    if (metrics != null) {
+      if (fingerInsert)
+	recordFingerSearch(finger, start, insPos);
+      else
+	metrics.recordSearch(depth(insPos));
+    }
+    //begin#fragment BinarySearchTree3
     return insertAtExternal(insPos, new BSTEntry<K,V>(k, x, insPos));
   }
   //end#fragment BinarySearchTree3
@@ -256,12 +278,414 @@ protected void addAll(PositionList<Entry<K,V>> L,
     t3.setParent(c);
     c.setRight(t4);
     t4.setParent(c);
+    if (metrics != null) metrics.recordRestructure();
     // Reset the location-aware entries
     ((BSTEntry<K,V>) a.element()).pos = a;
     ((BSTEntry<K,V>) b.element()).pos = b;
     ((BSTEntry<K,V>) c.element()).pos = c;
     return b; // the new root of this subtree
   }
+  /** Performs a single rotation, moving internal node x above its
+    * parent while keeping the inorder sequence of the tree. */
+  protected void rotate(Position<Entry<K,V>> x) {
+    BTPosition<Entry<K,V>> xx = (BTPosition<Entry<K,V>>) x;
+    BTPosition<Entry<K,V>> y = xx.getParent();	// assumes x has a parent
+    BTPosition<Entry<K,V>> z = y.getParent();
+    BTPosition<Entry<K,V>> t;	// subtree that changes parent
+    if (xx == y.getLeft()) {
+      t = xx.getRight();
+      y.setLeft(t);
+      xx.setRight(y);
+    }
+    else {
+      t = xx.getLeft();
+      y.setRight(t);
+      xx.setLeft(y);
+    }
+    if (t != null) t.setParent(y);
+    y.setParent(xx);
+    xx.setParent(z);
+    if (z == null)
+      root = xx;
+    else if (z.getLeft() == y)
+      z.setLeft(xx);
+    else
+      z.setRight(xx);
+    if (metrics != null) metrics.recordRotation();
+  }
+  /**
+   * Returns an entry containing the given key, or null if no such
+   * entry exists, starting the search from the finger, that is the
+   * node where the previous operation ended, instead of the root.  The
+   * search climbs from the finger in one pass up to the nearest
+   * ancestor bounding the key, then descends with the usual search.
+   * It visits at most a couple more nodes than the path from the finger
+   * to the key's node through their lowest common ancestor: few nodes
+   * when both keys lie in a small subtree, but up to twice the height
+   * of the tree when they lie on either side of a high node, however
+   * close they are in key order.  The finger is then moved to where
+   * this search ended.
+   */
+  public Entry<K,V> fingerFind(K key) throws InvalidKeyException {
+    checkKey(key);
+    Position<Entry<K,V>> finger = actionPos, start = fingerStart(key);
+    Position<Entry<K,V>> curPos = treeSearch(key, start);
+    actionPos = curPos;
+    if (metrics != null) recordFingerSearch(finger, start, curPos);
+    if (isInternal(curPos)) return entry(curPos);
+    return null;
+  }
+  /** Returns the lowest ancestor of the finger (or the finger itself)
+    * whose key range spans the given key, or the root if there is none.
+    * The key range of a node is bounded by its nearest ancestors having
+    * it in their left (hi) and right (lo) subtrees.  For a key larger
+    * than the finger's, only the hi ancestors matter: climbing from the
+    * finger, each hi ancestor whose key is not larger than the key
+    * becomes the new start, and the first one larger than the key ends
+    * the climb (symmetrically for a smaller key). */
+  protected Position<Entry<K,V>> fingerStart(K key) {
+    if (actionPos == null)
+      return root();
+    BTPosition<Entry<K,V>> u = checkPosition(actionPos);
+    if (u.element() == null) {	// external node: start from its parent
+      if (u.getParent() == null) return u;
+      u = u.getParent();
+    }
+    int c = C.compare(key, key(u));
+    if (c == 0) return u;
+    boolean up = c > 0;		// whether the key is larger than the finger's
+    for (BTPosition<Entry<K,V>> a = u; a.getParent() != null; a = a.getParent()) {
+      BTPosition<Entry<K,V>> p = a.getParent();
+      if ((a == p.getLeft()) == up) {	// p bounds the subtree of a on the key's side
+	c = C.compare(key, key(p));
+	if (c == 0) return p;
+	if ((c < 0) == up) return u;	// the key lies within p's bound
+	u = p;
+      }
+    }
+    return u;
+  }
+  /** Returns the entry following the given one in key order, or null
+    * if it is the last one, and moves the finger to it. */
+  public Entry<K,V> next(Entry<K,V> ent) throws InvalidEntryException {
+    checkEntry(ent);
+    BTPosition<Entry<K,V>> u = checkPosition(((BSTEntry<K,V>) ent).position());
+    if (u.getRight().element() != null) {	// leftmost node of right subtree
+      u = u.getRight();
+      while (u.getLeft().element() != null)
+	u = u.getLeft();
+    }
+    else {			// first ancestor having u on its left
+      while (u.getParent() != null && u == u.getParent().getRight())
+	u = u.getParent();
+      u = u.getParent();
+      if (u == null) return null;
+    }
+    actionPos = u;
+    return u.element();
+  }
+  /** Returns the entry preceding the given one in key order, or null
+    * if it is the first one, and moves the finger to it. */
+  public Entry<K,V> prev(Entry<K,V> ent) throws InvalidEntryException {
+    checkEntry(ent);
+    BTPosition<Entry<K,V>> u = checkPosition(((BSTEntry<K,V>) ent).position());
+    if (u.getLeft().element() != null) {	// rightmost node of left subtree
+      u = u.getLeft();
+      while (u.getRight().element() != null)
+	u = u.getRight();
+    }
+    else {			// first ancestor having u on its right
+      while (u.getParent() != null && u == u.getParent().getLeft())
+	u = u.getParent();
+      u = u.getParent();
+      if (u == null) return null;
+    }
+    actionPos = u;
+    return u.element();
+  }
+  /** Returns the entry with the smallest key, or null if the tree is
+    * empty, and moves the finger to it. */
+  public Entry<K,V> first() {
+    if (numEntries == 0) return null;
+    BTPosition<Entry<K,V>> u = root;
+    while (u.getLeft().element() != null)
+      u = u.getLeft();
+    actionPos = u;
+    return u.element();
+  }
+  /** Returns the entry with the largest key, or null if the tree is
+    * empty, and moves the finger to it. */
+  public Entry<K,V> last() {
+    if (numEntries == 0) return null;
+    BTPosition<Entry<K,V>> u = root;
+    while (u.getRight().element() != null)
+      u = u.getRight();
+    actionPos = u;
+    return u.element();
+  }
+  /** A batch smaller than 1/REBUILD_RATIO of the tree's size is applied
+    * one entry at a time; see {@link #insertAll insertAll}. */
+  protected static final int REBUILD_RATIO = 8;
+  /** Whether insert starts its search from the finger (during a batch). */
+  protected boolean fingerInsert = false;
+  /** Returns the node where insert starts searching for key k. */
+  protected Position<Entry<K,V>> insertionStart(K k) {
+    return fingerInsert ? fingerStart(k) : root();
+  }
+  /**
+   * Inserts a batch of entries, given in nondecreasing key order, and
+   * returns the newly created entries in that order.  All keys are
+   * checked before the tree is modified, so an invalid batch leaves
+   * the tree unchanged.  A batch of k >= n/REBUILD_RATIO entries, for
+   * a tree of n entries, is merged with the existing entries and the
+   * tree is rebuilt in balanced shape in O(n + k) time, that is O(k).
+   * A smaller batch is inserted one entry at a time, each search
+   * starting from the previous insertion point (see
+   * {@link #fingerFind fingerFind}), in O(k log n) time in the worst
+   * case, less when the keys are clustered.  This is not the
+   * split/join algorithm, which takes O(k log(n/k + 1)) time for any
+   * k, but it keeps to the rebalancing of each subclass and is never
+   * worse by more than a log factor.
+   * @throws InvalidKeyException if a key is invalid or out of order
+   */
+  public Iterable<Entry<K,V>> insertAll(Iterator<Entry<K,V>> batch)
+    throws InvalidKeyException {
+    BSTEntry<K,V>[] add = readSorted(batch);	// may throw; tree unchanged
+    PositionList<Entry<K,V>> created = new NodePositionList<Entry<K,V>>();
+    if (add.length * REBUILD_RATIO >= numEntries) {
+      BSTEntry<K,V>[] old = inorderEntries(null);
+      BSTEntry<K,V>[] merged = (BSTEntry<K,V>[]) new BSTEntry[old.length + add.length];
+      int i = 0, j = 0, m = 0;
+      while (i < old.length && j < add.length)
+	merged[m++] = (C.compare(old[i].getKey(), add[j].getKey()) <= 0)
+	  ? old[i++] : add[j++];
+      while (i < old.length) merged[m++] = old[i++];
+      while (j < add.length) merged[m++] = add[j++];
+      rebuild(merged, false);
+      for (BSTEntry<K,V> e : add)
+	created.addLast(e);
+    }
+    else {
+      actionPos = null;	// the first search starts from the root
+      fingerInsert = true;
+      try {
+	for (BSTEntry<K,V> e : add)
+	  created.addLast(insert(e.getKey(), e.getValue()));
+      } finally {
+	fingerInsert = false;
+      }
+    }
+    return created;
+  }
+  /**
+   * Removes a batch of entries of this tree.  All entries are checked
+   * before the tree is modified, so an invalid batch leaves the tree
+   * unchanged.  A batch of k >= n/REBUILD_RATIO entries, for a tree of
+   * n entries, is removed by rebuilding the tree from the remaining
+   * entries in O(n + k) time, that is O(k); the traversal also checks
+   * that every entry was found.  A smaller batch is removed one entry
+   * at a time, in O(k log n) time for a balanced tree, after checking
+   * that each entry is still linked to the root.  As for
+   * {@link #insertAll insertAll}, this is not the split/join algorithm.
+   * @throws InvalidEntryException if an entry is invalid, appears twice
+   * in the batch, or is not in this tree
+   */
+  public void removeAll(Iterator<Entry<K,V>> batch) throws InvalidEntryException {
+    IdentityHashMap<Entry<K,V>,Entry<K,V>> gone =
+      new IdentityHashMap<Entry<K,V>,Entry<K,V>>();
+    while (batch.hasNext()) {
+      Entry<K,V> e = batch.next();
+      checkEntry(e);	// may throw; tree unchanged
+      if (gone.put(e, e) != null)
+	throw new InvalidEntryException("Entry appears twice in the batch");
+    }
+    if (gone.size() * REBUILD_RATIO >= numEntries) {
+      BSTEntry<K,V>[] rest = inorderEntries(gone);
+      if (rest.length + gone.size() != numEntries)
+	throw new InvalidEntryException("Entry is not in this tree");
+      rebuild(rest, false);
+    }
+    else {
+      for (Entry<K,V> e : gone.keySet())
+	if (!contains(e))
+	  throw new InvalidEntryException("Entry is not in this tree");
+      for (Entry<K,V> e : gone.keySet())
+	remove(e);
+    }
+  }
+  /** Returns whether the given entry is stored in this tree, by
+    * following parent links from its node up to the root, in O(depth)
+    * time.  A removed node may keep its parent link, but its parent no
+    * longer has it as a child. */
+  protected boolean contains(Entry<K,V> ent) {
+    Position<Entry<K,V>> p = ((BSTEntry<K,V>) ent).position();
+    if (!(p instanceof BTPosition) || p.element() != ent)
+      return false;
+    BTPosition<Entry<K,V>> u = (BTPosition<Entry<K,V>>) p;
+    for (BTPosition<Entry<K,V>> a = u.getParent(); a != null; a = a.getParent()) {
+      if (a.getLeft() != u && a.getRight() != u)
+	return false;
+      u = a;
+    }
+    return u == root;
+  }
+  /** Returns the entries of the tree in inorder, leaving out those in
+    * the given map (if any). */
+  protected BSTEntry<K,V>[] inorderEntries(IdentityHashMap<Entry<K,V>,Entry<K,V>> skip) {
+    ArrayList<BSTEntry<K,V>> list = new ArrayList<BSTEntry<K,V>>(numEntries);
+    addInorder(list, root, skip);
+    return list.toArray((BSTEntry<K,V>[]) new BSTEntry[list.size()]);
+  }
+  /** Adds to list the entries of the subtree rooted at v, in inorder,
+    * leaving out those in the given map (if any). */
+  protected void addInorder(ArrayList<BSTEntry<K,V>> list, BTPosition<Entry<K,V>> v,
+			    IdentityHashMap<Entry<K,V>,Entry<K,V>> skip) {
+    if (v == null || v.element() == null) return;	// external node
+    addInorder(list, v.getLeft(), skip);
+    if (skip == null || !skip.containsKey(v.element()))
+      list.add((BSTEntry<K,V>) v.element());
+    addInorder(list, v.getRight(), skip);
+  }
+  /** Starts recording rebalancing and search metrics for this tree. */
+  public void enableMetrics() {
+    if (metrics == null)
+      metrics = new TreeMetrics();
+  }
+  /** Stops recording metrics and discards those recorded so far. */
+  public void disableMetrics() { metrics = null; }
+  /** Returns a snapshot of the metrics recorded since they were
+    * enabled, or null if metrics are disabled. */
+  public TreeMetrics.Snapshot metricsSnapshot() {
+    return (metrics == null) ? null : metrics.snapshot(this);
+  }
+  /** Records a search that climbed from the finger (null if there was
+    * none) up to start, then went down to end. */
+  protected void recordFingerSearch(Position<Entry<K,V>> finger,
+      Position<Entry<K,V>> start, Position<Entry<K,V>> end) {
+    int d = depth(start);
+    int climb = (finger == null) ? 0 : depth(finger) - d;
+    metrics.recordFingerSearch(climb + depth(end) - d + 1);
+  }
+  /** Returns the depth of a node (the root has depth 0). */
+  protected int depth(Position<Entry<K,V>> v) {
+    int d = 0;
+    for (BTPosition<Entry<K,V>> u = checkPosition(v); u.getParent() != null;
+	 u = u.getParent())
+      d++;
+    return d;
+  }
+  /** Returns the height of the tree counting internal nodes only, in
+    * O(n) time; subclasses that store heights may do better. */
+  protected int treeHeight() {
+    return internalHeight(root);
+  }
+  /** Returns the number of internal nodes on a longest downward path
+    * from v. */
+  protected int internalHeight(BTPosition<Entry<K,V>> v) {
+    if (v == null || v.element() == null) return 0;	// external node
+    return 1 + Math.max(internalHeight(v.getLeft()),
+			internalHeight(v.getRight()));
+  }
+  /** Smallest subtree built by its own task in a parallel bulk build. */
+  protected static final int PARALLEL_BUILD_THRESHOLD = 1 << 13;
+  /**
+   * Fills an empty tree with the entries returned by the given
+   * iterator, which must be in nondecreasing key order, in O(n) time.
+   * The tree is built directly in perfectly balanced shape and each
+   * internal node is passed to {@link #initBuiltNode initBuiltNode},
+   * so no rebalancing is ever performed.  If <tt>parallel</tt> is
+   * true, large subtrees are built concurrently in the common
+   * fork-join pool once the entries have been read.
+   * @throws NonEmptyTreeException if the tree already has entries
+   * @throws InvalidKeyException if a key is invalid or out of order
+   */
+  protected void buildFromSorted(Iterator<Entry<K,V>> it, boolean parallel)
+    throws NonEmptyTreeException, InvalidKeyException {
+    if (numEntries != 0)
+      throw new NonEmptyTreeException("Tree is not empty");
+    rebuild(readSorted(it), parallel);
+  }
+  /** Reads entries in nondecreasing key order into new tree entries.
+    * @throws InvalidKeyException if a key is invalid or out of order */
+  protected BSTEntry<K,V>[] readSorted(Iterator<Entry<K,V>> it)
+    throws InvalidKeyException {
+    ArrayList<BSTEntry<K,V>> list = new ArrayList<BSTEntry<K,V>>();
+    K prev = null;
+    while (it.hasNext()) {
+      Entry<K,V> e = it.next();
+      K k = e.getKey();
+      checkKey(k);
+      if (prev != null && C.compare(prev, k) > 0)
+	throw new InvalidKeyException("keys are not in sorted order");
+      prev = k;
+      list.add(new BSTEntry<K,V>(k, e.getValue(), null));
+    }
+    return list.toArray((BSTEntry<K,V>[]) new BSTEntry[list.size()]);
+  }
+  /** Replaces the whole tree by a balanced tree storing the given
+    * entries, which are in nondecreasing key order, in O(n) time. */
+  protected void rebuild(BSTEntry<K,V>[] sorted, boolean parallel) {
+    int n = sorted.length;
+    int maxDepth = (n == 0) ? 0 : 31 - Integer.numberOfLeadingZeros(n);
+    BTPosition<Entry<K,V>> r;
+    if (parallel && n >= PARALLEL_BUILD_THRESHOLD)
+      r = ForkJoinPool.commonPool().invoke(
+	      new BuildTask(sorted, 0, n - 1, 0, maxDepth));
+    else
+      r = buildSubtree(sorted, 0, n - 1, 0, maxDepth);
+    root = r;
+    size = 2 * n + 1;	// n internal and n+1 external nodes
+    numEntries = n;
+    actionPos = r;
+  }
+  /**
+   * Builds a balanced subtree storing sorted[lo..hi], whose root is
+   * at the given depth, and returns its root.  Every internal node of
+   * the whole tree has depth at most maxDepth = floor(log2 n).
+   */
+  protected BTPosition<Entry<K,V>> buildSubtree(BSTEntry<K,V>[] sorted,
+      int lo, int hi, int depth, int maxDepth) {
+    if (lo > hi)
+      return createNode(null, null, null, null);	// external node
+    int mid = (lo + hi) >>> 1;
+    BTPosition<Entry<K,V>> left = buildSubtree(sorted, lo, mid-1, depth+1, maxDepth);
+    BTPosition<Entry<K,V>> right = buildSubtree(sorted, mid+1, hi, depth+1, maxDepth);
+    return link(sorted[mid], left, right, depth, maxDepth);
+  }
+  /** Creates an internal node storing e with the given subtrees. */
+  protected BTPosition<Entry<K,V>> link(BSTEntry<K,V> e,
+      BTPosition<Entry<K,V>> left, BTPosition<Entry<K,V>> right,
+      int depth, int maxDepth) {
+    BTPosition<Entry<K,V>> v = createNode(e, null, left, right);
+    left.setParent(v);
+    right.setParent(v);
+    e.pos = v;
+    initBuiltNode(v, depth, maxDepth);
+    return v;
+  }
+  /** Called on every internal node created by a bulk build, after its
+    * subtrees are complete; subclasses set their balance information
+    * here.  Does nothing by default. */
+  protected void initBuiltNode(Position<Entry<K,V>> v, int depth, int maxDepth) { }
+  /** Fork-join task building one subtree of a parallel bulk build. */
+  protected class BuildTask extends RecursiveTask<BTPosition<Entry<K,V>>> {
+    private static final long serialVersionUID = 1L;
+    final BSTEntry<K,V>[] sorted;
+    final int lo, hi, depth, maxDepth;
+    BuildTask(BSTEntry<K,V>[] a, int l, int h, int d, int m) {
+      sorted = a; lo = l; hi = h; depth = d; maxDepth = m;
+    }
+    protected BTPosition<Entry<K,V>> compute() {
+      if (hi - lo < PARALLEL_BUILD_THRESHOLD)
+	return buildSubtree(sorted, lo, hi, depth, maxDepth);
+      int mid = (lo + hi) >>> 1;
+      BuildTask leftTask = new BuildTask(sorted, lo, mid-1, depth+1, maxDepth);
+      leftTask.fork();
+      BTPosition<Entry<K,V>> right =
+	new BuildTask(sorted, mid+1, hi, depth+1, maxDepth).compute();
+      return link(sorted[mid], leftTask.join(), right, depth, maxDepth);
+    }
+  }
 //begin#fragment BinarySearchTree3
 } 	// entries() method is omitted here
 //end#fragment BinarySearchTree3
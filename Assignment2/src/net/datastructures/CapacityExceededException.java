@@ -0,0 +1,13 @@
+package net.datastructures;
+/**
+ * Runtime exception thrown when one tries to add an element to a
+ * structure backed by a growable array that already holds
+ * {@link ArrayQueue#MAX_CAPACITY} elements and cannot grow any further.
+ * @see ArrayQueue
+ * @see CircularArrayDeque
+ */
+public class CapacityExceededException extends RuntimeException {
+  public CapacityExceededException(String err) {
+    super(err);
+  }
+}
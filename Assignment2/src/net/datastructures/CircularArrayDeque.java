@@ -0,0 +1,105 @@
+package net.datastructures;
+
+/**
+ * Implementation of the deque ADT using a circular array, so unlike
+ * {@link NodeDeque} it creates no object per inserted element.  The
+ * length of the array is a power of two, so the indices wrap around by
+ * masking, and the array doubles when an insertion finds it full, so
+ * each operation takes O(1) amortized time.  Not to be confused with
+ * <tt>java.util.ArrayDeque</tt>, which implements the Java collections
+ * interfaces instead of this package's Deque.
+ *
+ * @see ArrayQueue
+ * @see IntArrayDeque
+ */
+public class CircularArrayDeque<E> implements Deque<E> {
+  protected E[] D;		// circular array of elements
+  protected int head = 0;	// index of the first element
+  protected int n = 0;		// number of elements
+  /** Creates an empty deque with an array of default length. */
+  public CircularArrayDeque() { this(ArrayQueue.CAPACITY); }
+  /** Creates an empty deque with an array long enough for cap elements.
+    * @throws IllegalArgumentException if cap is less than 1 */
+  public CircularArrayDeque(int cap) {
+    D = (E[]) new Object[ArrayQueue.ceilPowerOfTwo(cap)];
+  }
+  /** Returns the number of elements in the deque. */
+  public int size() { return n; }
+  /** Returns whether the deque is empty. */
+  public boolean isEmpty() { return n == 0; }
+  /** Returns the first element. */
+  public E getFirst() throws EmptyDequeException {
+    if (n == 0)
+      throw new EmptyDequeException("Deque is empty.");
+    return D[head];
+  }
+  /** Returns the last element. */
+  public E getLast() throws EmptyDequeException {
+    if (n == 0)
+      throw new EmptyDequeException("Deque is empty.");
+    return D[(head + n - 1) & (D.length - 1)];
+  }
+  /** Inserts an element to be the first in the deque.
+    * @throws CapacityExceededException if the deque already holds 2^30 elements */
+  public void addFirst(E element) {
+    if (n == D.length)
+      grow();
+    head = (head - 1) & (D.length - 1);
+    D[head] = element;
+    n++;
+  }
+  /** Inserts an element to be the last in the deque.
+    * @throws CapacityExceededException if the deque already holds 2^30 elements */
+  public void addLast(E element) {
+    if (n == D.length)
+      grow();
+    D[(head + n++) & (D.length - 1)] = element;
+  }
+  /** Removes and returns the first element. */
+  public E removeFirst() throws EmptyDequeException {
+    if (n == 0)
+      throw new EmptyDequeException("Deque is empty.");
+    E element = D[head];
+    D[head] = null;		// dereference for garbage collection
+    head = (head + 1) & (D.length - 1);
+    n--;
+    return element;
+  }
+  /** Removes and returns the last element. */
+  public E removeLast() throws EmptyDequeException {
+    if (n == 0)
+      throw new EmptyDequeException("Deque is empty.");
+    int i = (head + --n) & (D.length - 1);
+    E element = D[i];
+    D[i] = null;		// dereference for garbage collection
+    return element;
+  }
+  /** Removes all the elements. */
+  public void clear() {
+    for (int i = 0; i < n; i++)
+      D[(head + i) & (D.length - 1)] = null;
+    head = n = 0;
+  }
+  /** Returns a string representation of the deque, first element first. */
+  public String toString() {
+    StringBuilder s = new StringBuilder("[");
+    for (int i = 0; i < n; i++) {
+      if (i > 0) s.append(", ");
+      s.append(D[(head + i) & (D.length - 1)]);
+    }
+    return s.append("]").toString();
+  }
+  /** Doubles the array, moving the elements to its start.
+    * @throws CapacityExceededException if the array already has the maximum
+    * length, ArrayQueue.MAX_CAPACITY */
+  protected void grow() throws CapacityExceededException {
+    if (D.length == ArrayQueue.MAX_CAPACITY)
+      throw new CapacityExceededException("Deque has reached its maximum capacity");
+    E[] a = (E[]) new Object[2 * D.length];
+    int k = D.length - head;	// elements from head to the end of D
+    System.arraycopy(D, head, a, 0, k);
+    System.arraycopy(D, 0, a, k, head);
+    D = a;
+    head = 0;
+  }
+}
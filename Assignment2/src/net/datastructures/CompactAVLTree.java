@@ -0,0 +1,194 @@
+package net.datastructures;
+import java.util.Comparator;
+
+/**
+ * Realization of a dictionary by means of a compact AVL tree.  Unlike
+ * {@link AVLTree}, which stores every entry in a separate object held
+ * by a node with parent and child references and keeps an external
+ * node below every leaf, this tree uses one object per entry: the node
+ * is itself the entry, a missing child is represented by
+ * <tt>null</tt>, there are no parent references, and the height is
+ * kept in a single byte.  Updates are performed recursively along the
+ * search path, so no parent references are needed to rebalance.
+ *
+ * @see MemoryFootprint
+ */
+public class CompactAVLTree<K,V> implements Dictionary<K,V> {
+  protected Comparator<K> C;	// comparator
+  protected Node<K,V> root;	// root of the tree, null if empty
+  protected int numEntries = 0;	// number of entries
+  private boolean removed;	// whether the last remove found its entry
+  /** Nested class for the nodes of the tree, which are also its entries. */
+  protected static class Node<K,V> implements Entry<K,V> {
+    protected K key;
+    protected V value;
+    protected Node<K,V> left, right;
+    protected byte height = 1;	// height of the subtree rooted here
+    Node(K k, V v) { key = k; value = v; }
+    public K getKey() { return key; }
+    public V getValue() { return value; }
+    public String toString() { return "(" + key + "," + value + ")"; }
+  }
+  /** Creates a CompactAVLTree with a default comparator. */
+  public CompactAVLTree() { C = new DefaultComparator<K>(); }
+  /** Creates a CompactAVLTree with the given comparator. */
+  public CompactAVLTree(Comparator<K> c) { C = c; }
+  /** Returns the number of entries in the tree. */
+  public int size() { return numEntries; }
+  /** Returns whether the tree is empty. */
+  public boolean isEmpty() { return numEntries == 0; }
+  /** Returns the height of the tree (0 if it is empty). */
+  public int height() { return height(root); }
+  /** Returns an entry containing the given key.  Returns null if no
+    * such entry exists. */
+  public Entry<K,V> find(K key) throws InvalidKeyException {
+    checkKey(key);
+    Node<K,V> v = root;
+    while (v != null) {
+      int comp = C.compare(key, v.key);
+      if (comp == 0) return v;
+      v = (comp < 0) ? v.left : v.right;
+    }
+    return null;
+  }
+  /** Returns an iterable collection of all the entries containing the
+    * given key. */
+  public Iterable<Entry<K,V>> findAll(K key) throws InvalidKeyException {
+    checkKey(key);
+    PositionList<Entry<K,V>> L = new NodePositionList<Entry<K,V>>();
+    addAll(L, root, key);
+    return L;
+  }
+  /** Returns an iterable collection of all the entries, in key order. */
+  public Iterable<Entry<K,V>> entries() {
+    PositionList<Entry<K,V>> L = new NodePositionList<Entry<K,V>>();
+    addInorder(L, root);
+    return L;
+  }
+  /** Inserts an entry into the tree and returns the newly created entry. */
+  public Entry<K,V> insert(K k, V x) throws InvalidKeyException {
+    checkKey(k);
+    Node<K,V> node = new Node<K,V>(k, x);
+    root = insert(root, node);
+    numEntries++;
+    return node;
+  }
+  /** Removes and returns a given entry, or returns null if the entry
+    * is not in the tree. */
+  public Entry<K,V> remove(Entry<K,V> ent) throws InvalidEntryException {
+    checkEntry(ent);
+    removed = false;
+    root = remove(root, ent.getKey(), (Node<K,V>) ent);
+    if (!removed) return null;
+    numEntries--;
+    return ent;
+  }
+  // Auxiliary methods
+  /** Checks whether a given key is valid. */
+  protected void checkKey(K key) throws InvalidKeyException {
+    if (key == null)
+      throw new InvalidKeyException("null key");
+  }
+  /** Checks whether a given entry is valid. */
+  protected void checkEntry(Entry<K,V> ent) throws InvalidEntryException {
+    if (ent == null || !(ent instanceof Node))
+      throw new InvalidEntryException("invalid entry");
+  }
+  /** Returns the height of a subtree (0 for the empty subtree). */
+  protected static <K,V> int height(Node<K,V> v) {
+    return (v == null) ? 0 : v.height;
+  }
+  /** Recomputes the height of a node from those of its children. */
+  protected static <K,V> void setHeight(Node<K,V> v) {
+    v.height = (byte) (1 + Math.max(height(v.left), height(v.right)));
+  }
+  /** Inserts node x into the subtree rooted at v and returns the new
+    * root of the subtree. */
+  protected Node<K,V> insert(Node<K,V> v, Node<K,V> x) {
+    if (v == null) return x;
+    if (C.compare(x.key, v.key) <= 0)	// equal keys go left
+      v.left = insert(v.left, x);
+    else
+      v.right = insert(v.right, x);
+    return rebalance(v);
+  }
+  /** Removes node x (with key k) from the subtree rooted at v and
+    * returns the new root of the subtree. */
+  protected Node<K,V> remove(Node<K,V> v, K k, Node<K,V> x) {
+    if (v == null) return null;
+    if (v == x) {	// found: splice in the successor node itself
+      removed = true;
+      if (v.left == null) return v.right;
+      if (v.right == null) return v.left;
+      Node<K,V> s = v.right;
+      while (s.left != null) s = s.left;
+      s.right = removeMin(v.right);
+      s.left = v.left;
+      v.left = v.right = null;
+      return rebalance(s);
+    }
+    int comp = C.compare(k, v.key);
+    if (comp <= 0)	// equal keys may be on either side
+      v.left = remove(v.left, k, x);
+    if (comp >= 0 && !removed)
+      v.right = remove(v.right, k, x);
+    return removed ? rebalance(v) : v;
+  }
+  /** Unlinks the leftmost node of a nonempty subtree and returns the
+    * new root of the subtree. */
+  protected Node<K,V> removeMin(Node<K,V> v) {
+    if (v.left == null) return v.right;
+    v.left = removeMin(v.left);
+    return rebalance(v);
+  }
+  /** Recomputes the height of v, performs a single or double rotation
+    * if v is unbalanced, and returns the new root of the subtree. */
+  protected Node<K,V> rebalance(Node<K,V> v) {
+    int bf = height(v.left) - height(v.right);
+    if (bf > 1) {
+      if (height(v.left.left) < height(v.left.right))
+	v.left = rotateLeft(v.left);
+      return rotateRight(v);
+    }
+    if (bf < -1) {
+      if (height(v.right.right) < height(v.right.left))
+	v.right = rotateRight(v.right);
+      return rotateLeft(v);
+    }
+    setHeight(v);
+    return v;
+  }
+  /** Rotates the left child of v above v and returns it. */
+  protected Node<K,V> rotateRight(Node<K,V> v) {
+    Node<K,V> u = v.left;
+    v.left = u.right;
+    u.right = v;
+    setHeight(v);
+    setHeight(u);
+    return u;
+  }
+  /** Rotates the right child of v above v and returns it. */
+  protected Node<K,V> rotateLeft(Node<K,V> v) {
+    Node<K,V> u = v.right;
+    v.right = u.left;
+    u.left = v;
+    setHeight(v);
+    setHeight(u);
+    return u;
+  }
+  /** Adds to L all entries in the subtree rooted at v having key k. */
+  protected void addAll(PositionList<Entry<K,V>> L, Node<K,V> v, K k) {
+    if (v == null) return;
+    int comp = C.compare(k, v.key);
+    if (comp <= 0) addAll(L, v.left, k);
+    if (comp == 0) L.addLast(v);
+    if (comp >= 0) addAll(L, v.right, k);
+  }
+  /** Adds to L all entries in the subtree rooted at v, in inorder. */
+  protected void addInorder(PositionList<Entry<K,V>> L, Node<K,V> v) {
+    if (v == null) return;
+    addInorder(L, v.left);
+    L.addLast(v);
+    addInorder(L, v.right);
+  }
+}
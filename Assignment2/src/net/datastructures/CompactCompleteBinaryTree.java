@@ -0,0 +1,214 @@
+package net.datastructures;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+
+/**
+ * Implementation of the CompleteBinaryTree interface that stores the
+ * elements directly in a resizable array, in level order: the root at
+ * index 1 and the children of the node at index i at indices 2i and
+ * 2i+1, as in {@link ArrayListCompleteBinaryTree}.  No object is kept
+ * per node.  A position is a flyweight holding only a reference to the
+ * tree and an index, created when a method returns it and compared by
+ * index, so two positions for the same node are equal but not
+ * necessarily identical.
+ *
+ * <p>Level order is the Eytzinger layout.  A tree built by
+ * {@link #fromSorted fromSorted} holds its elements so that an inorder
+ * traversal visits them in sorted order.  It can then be searched with
+ * {@link #lowerBound lowerBound}, which walks down one path of the
+ * array.  The top levels of the tree share a few cache lines, and the
+ * loop has no early exit.
+ *
+ * @see ArrayListCompleteBinaryTree
+ */
+public class CompactCompleteBinaryTree<E> implements CompleteBinaryTree<E> {
+  /** Default initial capacity of the array. */
+  public static final int CAPACITY = 16;
+  protected E[] T;		// elements in level order; T[0] is unused
+  protected int n = 0;		// number of nodes
+  protected boolean sorted = false;	// whether inorder is sorted order
+  /** Nested class for the flyweight positions of the tree. */
+  protected static class Pos<E> implements Position<E> {
+    protected final CompactCompleteBinaryTree<E> tree;
+    protected final int index;
+    Pos(CompactCompleteBinaryTree<E> t, int i) { tree = t; index = i; }
+    public E element() { return tree.T[index]; }
+    public int index() { return index; }
+    public boolean equals(Object o) {
+      return (o instanceof Pos) && ((Pos) o).tree == tree
+	&& ((Pos) o).index == index;
+    }
+    public int hashCode() { return index; }
+    public String toString() { return "[" + element() + "," + index + "]"; }
+  }
+  /** Creates an empty tree. */
+  public CompactCompleteBinaryTree() {
+    T = (E[]) new Object[CAPACITY];
+  }
+  /**
+   * Builds a tree holding the given elements, which are in nondecreasing
+   * order, so that an inorder traversal visits them in that order (the
+   * Eytzinger layout), in O(n) time.  The tree can then be searched with
+   * {@link #lowerBound lowerBound}, using the same order.
+   */
+  public static <E> CompactCompleteBinaryTree<E> fromSorted(E[] elements) {
+    CompactCompleteBinaryTree<E> t = new CompactCompleteBinaryTree<E>();
+    t.T = (E[]) new Object[elements.length + 1];
+    t.n = elements.length;
+    t.fillInorder(elements, 1, 0);
+    t.sorted = true;
+    return t;
+  }
+  /** Returns the number of nodes. */
+  public int size() { return n; }
+  /** Returns whether the tree is empty. */
+  public boolean isEmpty() { return n == 0; }
+  /** Returns whether v is an internal node. */
+  public boolean isInternal(Position<E> v) throws InvalidPositionException {
+    return hasLeft(v);  // if v has a right child it will have a left child
+  }
+  /** Returns whether v is an external node. */
+  public boolean isExternal(Position<E> v) throws InvalidPositionException {
+    return !isInternal(v);
+  }
+  /** Returns whether v is the root node. */
+  public boolean isRoot(Position<E> v) throws InvalidPositionException {
+    return checkPosition(v) == 1;
+  }
+  /** Returns whether v has a left child. */
+  public boolean hasLeft(Position<E> v) throws InvalidPositionException {
+    return 2 * checkPosition(v) <= n;
+  }
+  /** Returns whether v has a right child. */
+  public boolean hasRight(Position<E> v) throws InvalidPositionException {
+    return 2 * checkPosition(v) + 1 <= n;
+  }
+  /** Returns the root of the tree. */
+  public Position<E> root() throws EmptyTreeException {
+    if (isEmpty()) throw new EmptyTreeException("Tree is empty");
+    return new Pos<E>(this, 1);
+  }
+  /** Returns the left child of v. */
+  public Position<E> left(Position<E> v)
+    throws InvalidPositionException, BoundaryViolationException {
+    int i = 2 * checkPosition(v);
+    if (i > n) throw new BoundaryViolationException("No left child");
+    return new Pos<E>(this, i);
+  }
+  /** Returns the right child of v. */
+  public Position<E> right(Position<E> v)
+    throws InvalidPositionException, BoundaryViolationException {
+    int i = 2 * checkPosition(v) + 1;
+    if (i > n) throw new BoundaryViolationException("No right child");
+    return new Pos<E>(this, i);
+  }
+  /** Returns the parent of v. */
+  public Position<E> parent(Position<E> v)
+    throws InvalidPositionException, BoundaryViolationException {
+    int i = checkPosition(v);
+    if (i == 1) throw new BoundaryViolationException("No parent");
+    return new Pos<E>(this, i / 2);
+  }
+  /** Returns the sibling of v. */
+  public Position<E> sibling(Position<E> v)
+    throws InvalidPositionException, BoundaryViolationException {
+    int i = checkPosition(v);
+    if (i == 1 || (i ^ 1) > n)
+      throw new BoundaryViolationException("Node has no sibling");
+    return new Pos<E>(this, i ^ 1);
+  }
+  /** Returns an iterable collection of the children of v. */
+  public Iterable<Position<E>> children(Position<E> v) throws InvalidPositionException {
+    PositionList<Position<E>> children = new NodePositionList<Position<E>>();
+    if (hasLeft(v))
+      children.addLast(left(v));
+    if (hasRight(v))
+      children.addLast(right(v));
+    return children;
+  }
+  /** Returns an iterable collection of all the nodes in the tree. */
+  public Iterable<Position<E>> positions() {
+    ArrayList<Position<E>> P = new ArrayList<Position<E>>(n);
+    for (int i = 1; i <= n; i++)
+      P.add(new Pos<E>(this, i));
+    return P;
+  }
+  /** Returns an iterator of the elements stored at all nodes in the tree. */
+  public Iterator<E> iterator() {
+    return Arrays.asList(T).subList(1, n + 1).iterator();
+  }
+  /** Replaces the element at v. */
+  public E replace(Position<E> v, E o) throws InvalidPositionException {
+    int i = checkPosition(v);
+    E temp = T[i];
+    T[i] = o;
+    sorted = false;
+    return temp;
+  }
+  /** Swaps the elements at two nodes. */
+  public void swapElements(Position<E> v, Position<E> w)
+    throws InvalidPositionException {
+    int i = checkPosition(v), j = checkPosition(w);
+    E temp = T[i];
+    T[i] = T[j];
+    T[j] = temp;
+    sorted = false;
+  }
+  /** Adds an element just after the last node (in a level numbering). */
+  public Position<E> add(E e) {
+    if (n + 1 == T.length)	// grow the array
+      T = Arrays.copyOf(T, 2 * T.length);
+    T[++n] = e;
+    sorted = false;
+    return new Pos<E>(this, n);
+  }
+  /** Removes and returns the element at the last node. */
+  public E remove() throws EmptyTreeException {
+    if (isEmpty()) throw new EmptyTreeException("Tree is empty");
+    E e = T[n];
+    T[n--] = null;	// let the element be garbage collected
+    sorted = false;
+    return e;
+  }
+  /**
+   * Returns the node holding the first element not less than key in
+   * inorder, or null if there is none.  The tree must be in sorted
+   * layout, that is built by {@link #fromSorted fromSorted} and not
+   * modified since.  Takes O(log n) time.
+   * @throws IllegalStateException if the tree is not in sorted layout
+   */
+  public Position<E> lowerBound(E key, Comparator<E> c)
+    throws IllegalStateException {
+    if (!sorted)
+      throw new IllegalStateException("Tree is not in sorted layout");
+    int i = 1;
+    while (i <= n)	// go right past smaller elements, else left
+      i = 2 * i + ((c.compare(T[i], key) < 0) ? 1 : 0);
+    i >>= Integer.numberOfTrailingZeros(~i) + 1;	// undo the final right turns
+    return (i == 0) ? null : new Pos<E>(this, i);
+  }
+  /** Determines whether the given position is a valid node of this tree
+    * and returns its index. */
+  protected int checkPosition(Position<E> v) throws InvalidPositionException {
+    if (v == null || !(v instanceof Pos) || ((Pos<E>) v).tree != this)
+      throw new InvalidPositionException("Position is invalid");
+    int i = ((Pos<E>) v).index;
+    if (i < 1 || i > n)
+      throw new InvalidPositionException("Position is no longer in the tree");
+    return i;
+  }
+  /** Stores sorted elements from index next on in the subtree rooted at
+    * index i, in inorder, and returns the index of the next element. */
+  protected int fillInorder(E[] elements, int i, int next) {
+    if (i > n) return next;
+    next = fillInorder(elements, 2 * i, next);
+    T[i] = elements[next++];
+    return fillInorder(elements, 2 * i + 1, next);
+  }
+  /** Returns a String representing this complete binary tree. */
+  public String toString() {
+    return Arrays.toString(Arrays.copyOfRange(T, 1, n + 1));
+  }
+}
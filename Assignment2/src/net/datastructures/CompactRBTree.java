@@ -0,0 +1,251 @@
+package net.datastructures;
+import java.util.Comparator;
+
+/**
+ * Realization of a dictionary by means of a compact red-black tree, the
+ * counterpart of {@link CompactAVLTree} for {@link RBTree}: one object
+ * per entry, which is the node itself, <tt>null</tt> for a missing
+ * child, no parent references, and the color kept in a single byte.
+ * The tree is a left-leaning red-black tree (a red node is always a
+ * left child), which lets insert and remove restore the red-black
+ * properties recursively along the search path, so no parent
+ * references are needed.  The height is at most 2 log(n+1).
+ *
+ * @see MemoryFootprint
+ */
+public class CompactRBTree<K,V> implements Dictionary<K,V> {
+  /** Color of a red node. */
+  protected static final byte RED = 1;
+  /** Color of a black node. */
+  protected static final byte BLACK = 0;
+  protected Comparator<K> C;	// comparator
+  protected Node<K,V> root;	// root of the tree, null if empty
+  protected int numEntries = 0;	// number of entries
+  /** Nested class for the nodes of the tree, which are also its entries. */
+  protected static class Node<K,V> implements Entry<K,V> {
+    protected K key;
+    protected V value;
+    protected Node<K,V> left, right;
+    protected byte color = RED;	// new nodes are red
+    Node(K k, V v) { key = k; value = v; }
+    public K getKey() { return key; }
+    public V getValue() { return value; }
+    public String toString() { return "(" + key + "," + value + ")"; }
+  }
+  /** Creates a CompactRBTree with a default comparator. */
+  public CompactRBTree() { C = new DefaultComparator<K>(); }
+  /** Creates a CompactRBTree with the given comparator. */
+  public CompactRBTree(Comparator<K> c) { C = c; }
+  /** Returns the number of entries in the tree. */
+  public int size() { return numEntries; }
+  /** Returns whether the tree is empty. */
+  public boolean isEmpty() { return numEntries == 0; }
+  /** Returns the height of the tree (0 if it is empty). */
+  public int height() { return height(root); }
+  /** Returns an entry containing the given key.  Returns null if no
+    * such entry exists. */
+  public Entry<K,V> find(K key) throws InvalidKeyException {
+    checkKey(key);
+    Node<K,V> v = root;
+    while (v != null) {
+      int comp = C.compare(key, v.key);
+      if (comp == 0) return v;
+      v = (comp < 0) ? v.left : v.right;
+    }
+    return null;
+  }
+  /** Returns an iterable collection of all the entries containing the
+    * given key. */
+  public Iterable<Entry<K,V>> findAll(K key) throws InvalidKeyException {
+    checkKey(key);
+    PositionList<Entry<K,V>> L = new NodePositionList<Entry<K,V>>();
+    addAll(L, root, key);
+    return L;
+  }
+  /** Returns an iterable collection of all the entries, in key order. */
+  public Iterable<Entry<K,V>> entries() {
+    PositionList<Entry<K,V>> L = new NodePositionList<Entry<K,V>>();
+    addInorder(L, root);
+    return L;
+  }
+  /** Inserts an entry into the tree and returns the newly created entry. */
+  public Entry<K,V> insert(K k, V x) throws InvalidKeyException {
+    checkKey(k);
+    Node<K,V> node = new Node<K,V>(k, x);
+    root = insert(root, node);
+    root.color = BLACK;
+    numEntries++;
+    return node;
+  }
+  /** Removes and returns a given entry, or returns null if the entry
+    * is not in the tree. */
+  public Entry<K,V> remove(Entry<K,V> ent) throws InvalidEntryException {
+    checkEntry(ent);
+    Node<K,V> x = (Node<K,V>) ent;
+    if (!contains(root, x)) return null;
+    if (!isRed(root.left) && !isRed(root.right))
+      root.color = RED;		// so that the root can lend a red link
+    root = remove(root, x);
+    if (root != null) root.color = BLACK;
+    numEntries--;
+    return ent;
+  }
+  // Auxiliary methods
+  /** Checks whether a given key is valid. */
+  protected void checkKey(K key) throws InvalidKeyException {
+    if (key == null)
+      throw new InvalidKeyException("null key");
+  }
+  /** Checks whether a given entry is valid. */
+  protected void checkEntry(Entry<K,V> ent) throws InvalidEntryException {
+    if (ent == null || !(ent instanceof Node))
+      throw new InvalidEntryException("invalid entry");
+  }
+  /** Returns whether a node is red (null nodes are black). */
+  protected static <K,V> boolean isRed(Node<K,V> v) {
+    return v != null && v.color == RED;
+  }
+  /** Returns the height of a subtree (0 for the empty subtree). */
+  protected static <K,V> int height(Node<K,V> v) {
+    return (v == null) ? 0 : 1 + Math.max(height(v.left), height(v.right));
+  }
+  /** Returns whether node x is in the subtree rooted at v; equal keys
+    * may be on either side of a node. */
+  protected boolean contains(Node<K,V> v, Node<K,V> x) {
+    while (v != null) {
+      if (v == x) return true;
+      int comp = C.compare(x.key, v.key);
+      if (comp == 0)
+	return contains(v.left, x) || contains(v.right, x);
+      v = (comp < 0) ? v.left : v.right;
+    }
+    return false;
+  }
+  /** Returns whether node x, which is in the subtree rooted at v, lies
+    * in its left subtree. */
+  protected boolean inLeft(Node<K,V> v, Node<K,V> x) {
+    if (v == x) return false;
+    int comp = C.compare(x.key, v.key);
+    return comp < 0 || (comp == 0 && contains(v.left, x));
+  }
+  /** Inserts node x into the subtree rooted at v and returns the new
+    * root of the subtree. */
+  protected Node<K,V> insert(Node<K,V> v, Node<K,V> x) {
+    if (v == null) return x;
+    if (C.compare(x.key, v.key) <= 0)	// equal keys go left
+      v.left = insert(v.left, x);
+    else
+      v.right = insert(v.right, x);
+    return fixUp(v);
+  }
+  /** Removes node x from the subtree rooted at v, which contains it, and
+    * returns the new root of the subtree.  On the way down, a red link
+    * is pushed towards x so that the node finally unlinked is red. */
+  protected Node<K,V> remove(Node<K,V> v, Node<K,V> x) {
+    if (inLeft(v, x)) {
+      if (!isRed(v.left) && !isRed(v.left.left))
+	v = moveRedLeft(v);
+      v.left = remove(v.left, x);
+    }
+    else {
+      if (isRed(v.left))
+	v = rotateRight(v);
+      if (v == x && v.right == null)
+	return null;
+      if (!isRed(v.right) && !isRed(v.right.left))
+	v = moveRedRight(v);
+      if (v == x) {	// splice in the successor node itself
+	Node<K,V> s = v.right;
+	while (s.left != null) s = s.left;
+	s.right = removeMin(v.right);
+	s.left = v.left;
+	s.color = v.color;
+	v.left = v.right = null;
+	v = s;
+      }
+      else
+	v.right = remove(v.right, x);
+    }
+    return fixUp(v);
+  }
+  /** Unlinks the leftmost node of a nonempty subtree and returns the
+    * new root of the subtree. */
+  protected Node<K,V> removeMin(Node<K,V> v) {
+    if (v.left == null) return null;	// v is red, so it has no right child
+    if (!isRed(v.left) && !isRed(v.left.left))
+      v = moveRedLeft(v);
+    v.left = removeMin(v.left);
+    return fixUp(v);
+  }
+  /** Restores the left-leaning red-black properties at v on the way up
+    * and returns the new root of the subtree. */
+  protected Node<K,V> fixUp(Node<K,V> v) {
+    if (isRed(v.right) && !isRed(v.left))
+      v = rotateLeft(v);
+    if (isRed(v.left) && isRed(v.left.left))
+      v = rotateRight(v);
+    if (isRed(v.left) && isRed(v.right))
+      flipColors(v);
+    return v;
+  }
+  /** Makes v.left or one of its children red, assuming v is red and
+    * both v.left and v.left.left are black. */
+  protected Node<K,V> moveRedLeft(Node<K,V> v) {
+    flipColors(v);
+    if (isRed(v.right.left)) {
+      v.right = rotateRight(v.right);
+      v = rotateLeft(v);
+      flipColors(v);
+    }
+    return v;
+  }
+  /** Makes v.right or one of its children red, assuming v is red and
+    * both v.right and v.right.left are black. */
+  protected Node<K,V> moveRedRight(Node<K,V> v) {
+    flipColors(v);
+    if (isRed(v.left.left)) {
+      v = rotateRight(v);
+      flipColors(v);
+    }
+    return v;
+  }
+  /** Inverts the colors of v and of its two children. */
+  protected static <K,V> void flipColors(Node<K,V> v) {
+    v.color ^= 1;
+    v.left.color ^= 1;
+    v.right.color ^= 1;
+  }
+  /** Rotates the left child of v above v and returns it. */
+  protected static <K,V> Node<K,V> rotateRight(Node<K,V> v) {
+    Node<K,V> u = v.left;
+    v.left = u.right;
+    u.right = v;
+    u.color = v.color;
+    v.color = RED;
+    return u;
+  }
+  /** Rotates the right child of v above v and returns it. */
+  protected static <K,V> Node<K,V> rotateLeft(Node<K,V> v) {
+    Node<K,V> u = v.right;
+    v.right = u.left;
+    u.left = v;
+    u.color = v.color;
+    v.color = RED;
+    return u;
+  }
+  /** Adds to L all entries in the subtree rooted at v having key k. */
+  protected void addAll(PositionList<Entry<K,V>> L, Node<K,V> v, K k) {
+    if (v == null) return;
+    int comp = C.compare(k, v.key);
+    if (comp <= 0) addAll(L, v.left, k);
+    if (comp == 0) L.addLast(v);
+    if (comp >= 0) addAll(L, v.right, k);
+  }
+  /** Adds to L all entries in the subtree rooted at v, in inorder. */
+  protected void addInorder(PositionList<Entry<K,V>> L, Node<K,V> v) {
+    if (v == null) return;
+    addInorder(L, v.left);
+    L.addLast(v);
+    addInorder(L, v.right);
+  }
+}
@@ -0,0 +1,72 @@
+package net.datastructures;
+import java.util.Comparator;
+
+/**
+ * Realization of a dictionary that can be shared by many threads
+ * without blocking readers.  The current contents are held as an
+ * immutable {@link PersistentAVLTree} version referenced by a volatile
+ * field: lookups read that reference once and search the version it
+ * points to, so they never take a lock and always see a consistent
+ * tree.  Updates are serialized among themselves and publish a new
+ * version, which shares all untouched subtrees with the previous one,
+ * so each update costs O(log n) time and allocation.
+ *
+ * <p>This suits read-mostly workloads; heavy concurrent writers would
+ * contend on the single update lock.
+ *
+ * @see PersistentAVLTree
+ */
+public class ConcurrentAVLTree<K,V> implements Dictionary<K,V> {
+  protected volatile PersistentAVLTree<K,V> current;	// published version
+  /** Creates an empty dictionary with the default comparator. */
+  public ConcurrentAVLTree() {
+    current = new PersistentAVLTree<K,V>();
+  }
+  /** Creates an empty dictionary with the given comparator. */
+  public ConcurrentAVLTree(Comparator<K> c) {
+    current = new PersistentAVLTree<K,V>(c);
+  }
+  /** Returns the number of entries in the dictionary. */
+  public int size() { return current.size(); }
+  /** Returns whether the dictionary is empty. */
+  public boolean isEmpty() { return current.isEmpty(); }
+  /** Returns an entry containing the given key, or <tt>null</tt> if no
+    * such entry exists.  Never blocks. */
+  public Entry<K,V> find(K key) throws InvalidKeyException {
+    return current.find(key);
+  }
+  /** Returns an iterable collection of all the entries containing the
+    * given key, taken from a single consistent version.  Never blocks. */
+  public Iterable<Entry<K,V>> findAll(K key) throws InvalidKeyException {
+    return current.findAll(key);
+  }
+  /** Returns an iterable collection of all the entries, taken from a
+    * single consistent version.  Never blocks. */
+  public Iterable<Entry<K,V>> entries() {
+    return current.entries();
+  }
+  /** Returns the current version; it never changes afterwards. */
+  public PersistentAVLTree<K,V> snapshot() {
+    return current;
+  }
+  /** Inserts an entry and returns the newly created entry. */
+  public synchronized Entry<K,V> insert(K k, V x) throws InvalidKeyException {
+    current.checkKey(k);
+    Entry<K,V> entry = new PersistentAVLTree.AVLEntry<K,V>(k, x);
+    current = current.insertEntry(entry);	// publish the new version
+    return entry;
+  }
+  /** Removes and returns the given entry.
+    * @throws InvalidEntryException if the entry was not created by this
+    * dictionary or is no longer in it */
+  public synchronized Entry<K,V> remove(Entry<K,V> ent)
+    throws InvalidEntryException {
+    if (!(ent instanceof PersistentAVLTree.AVLEntry))
+      throw new InvalidEntryException("invalid entry");
+    PersistentAVLTree<K,V> next = current.remove(ent);
+    if (next == current)
+      throw new InvalidEntryException("entry is not in the dictionary");
+    current = next;	// publish the new version
+    return ent;
+  }
+}
@@ -0,0 +1,158 @@
+package net.datastructures;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Relaxed concurrent priority queue (a MultiQueue) made of c*p
+ * sequential heaps, each guarded by its own lock, for p threads.  An
+ * insertion goes to a random heap whose lock is free.  A removal looks
+ * at the minima of two random heaps and removes the smaller one, so
+ * threads rarely contend for the same lock and throughput grows with
+ * the number of threads.
+ *
+ * <p>The price is that <tt>removeMin</tt> and <tt>min</tt> are relaxed:
+ * they return an entry with one of the smallest keys, not necessarily
+ * the smallest.  The expected rank of the entry returned is O(c*p), so
+ * the relaxation factor c trades accuracy for less contention; with
+ * one heap (c = p = 1) the queue is strict.  Use a
+ * {@link ConcurrentSkipListPriorityQueue} when strict order is needed.
+ *
+ * <p>A thread that keeps finding the heaps it picked locked backs off:
+ * after SPINS failed attempts in a row it yields the processor before
+ * each new attempt, and an insertion then waits for the lock of the
+ * heap it picked.
+ */
+public class ConcurrentMultiPriorityQueue<K,V> implements PriorityQueue<K,V> {
+  /** Default number of heaps per thread. */
+  public static final int DEFAULT_RELAXATION = 2;
+  /** Failed attempts in a row after which a thread backs off. */
+  protected static final int SPINS = 16;
+  protected final SubQueue<K,V>[] queues;	// the sequential heaps
+  protected final AtomicInteger size = new AtomicInteger();	// number of entries
+  protected final Comparator<K> comp;	// comparator for the keys
+  /** Nested class for a heap together with its lock. */
+  protected static class SubQueue<K,V> extends ReentrantLock {
+    protected final DaryHeapPriorityQueue<K,V> heap;
+    protected volatile Entry<K,V> top;	// minimum of the heap, null if empty
+    SubQueue(Comparator<K> c) {
+      heap = new DaryHeapPriorityQueue<K,V>(c);
+    }
+    /** Updates the cached minimum after the heap changed. */
+    void refresh() { top = heap.isEmpty() ? null : heap.min(); }
+  }
+  /** Creates a queue with the default comparator and relaxation factor,
+    * for as many threads as there are processors. */
+  public ConcurrentMultiPriorityQueue() {
+    this(DEFAULT_RELAXATION, Runtime.getRuntime().availableProcessors(),
+	 new DefaultComparator<K>());
+  }
+  /** Creates a queue with c*threads heaps and the given comparator.
+    * @throws IllegalArgumentException if c or threads is less than 1 */
+  public ConcurrentMultiPriorityQueue(int c, int threads, Comparator<K> comp) {
+    if (c < 1 || threads < 1)
+      throw new IllegalArgumentException("c and threads must be positive");
+    this.comp = comp;
+    queues = (SubQueue<K,V>[]) new SubQueue[c * threads];
+    for (int i = 0; i < queues.length; i++)
+      queues[i] = new SubQueue<K,V>(comp);
+  }
+  /** Returns the number of entries in the priority queue, counting
+    * those still being inserted, so it is never negative (a snapshot). */
+  public int size() { return size.get(); }
+  /** Returns whether the priority queue is empty (a snapshot). */
+  public boolean isEmpty() { return size.get() == 0; }
+  /** Returns but does not remove an entry with the smallest key among
+    * the minima of the heaps, without locking them. */
+  public Entry<K,V> min() throws EmptyPriorityQueueException {
+    Entry<K,V> min = null;
+    for (SubQueue<K,V> q : queues) {
+      Entry<K,V> t = q.top;
+      if (t != null && (min == null || comp.compare(t.getKey(), min.getKey()) < 0))
+	min = t;
+    }
+    if (min == null)
+      throw new EmptyPriorityQueueException("Priority queue is empty");
+    return min;
+  }
+  /** Inserts a key-value pair into a random heap and returns the entry
+    * created. */
+  public Entry<K,V> insert(K k, V x) throws InvalidKeyException {
+    checkKey(k);
+    size.incrementAndGet();	// before the entry can be removed
+    ThreadLocalRandom r = ThreadLocalRandom.current();
+    for (int failures = 0; ; failures++) {
+      SubQueue<K,V> q = queues[r.nextInt(queues.length)];
+      if (failures < SPINS) {
+	if (!q.tryLock()) continue;
+      }
+      else {		// stop spinning: wait for this heap's lock
+	Thread.yield();
+	q.lock();
+      }
+      Entry<K,V> e;
+      try {
+	e = q.heap.insert(k, x);
+	q.refresh();
+      } finally {
+	q.unlock();
+      }
+      return e;
+    }
+  }
+  /** Removes and returns the smaller of the minima of two random heaps. */
+  public Entry<K,V> removeMin() throws EmptyPriorityQueueException {
+    ThreadLocalRandom r = ThreadLocalRandom.current();
+    int misses = 0;	// consecutive rounds that found both heaps empty
+    for (int failures = 0; ; failures++) {
+      if (failures >= SPINS)
+	Thread.yield();	// back off before trying again
+      SubQueue<K,V> q = queues[r.nextInt(queues.length)];
+      SubQueue<K,V> q2 = queues[r.nextInt(queues.length)];
+      Entry<K,V> t = q.top, t2 = q2.top;
+      if (t == null || (t2 != null && comp.compare(t2.getKey(), t.getKey()) < 0)) {
+	q = q2;
+	t = t2;
+      }
+      if (t == null) {	// both empty: is the whole queue empty?
+	if (++misses >= queues.length) {
+	  if (size.get() == 0)
+	    throw new EmptyPriorityQueueException("Priority queue is empty");
+	  misses = 0;
+	  q = firstNonEmpty();
+	  if (q == null) continue;
+	}
+	else continue;
+      }
+      if (q.tryLock()) {
+	try {
+	  if (!q.heap.isEmpty()) {
+	    Entry<K,V> e = q.heap.removeMin();
+	    q.refresh();
+	    size.decrementAndGet();
+	    return e;
+	  }
+	} finally {
+	  q.unlock();
+	}
+      }
+    }
+  }
+  // Auxiliary methods
+  /** Determines whether a given key is valid. */
+  protected void checkKey(K key) throws InvalidKeyException {
+    try {
+      comp.compare(key,key);
+    }
+    catch(Exception e) {
+      throw new InvalidKeyException("Invalid key");
+    }
+  }
+  /** Returns a heap that currently looks nonempty, or null. */
+  protected SubQueue<K,V> firstNonEmpty() {
+    for (SubQueue<K,V> q : queues)
+      if (q.top != null) return q;
+    return null;
+  }
+}
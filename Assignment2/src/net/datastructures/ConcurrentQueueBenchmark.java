@@ -0,0 +1,255 @@
+package net.datastructures;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput and latency benchmarks for the queues that pass elements
+ * between threads, compared with a {@link NodeQueue} guarded by its own
+ * lock.  Run with <tt>java net.datastructures.ConcurrentQueueBenchmark</tt>;
+ * the figures are only meaningful relative to one another on one
+ * machine with at least as many processors as threads.  Waiting
+ * threads yield rather than spin, so that the runs still finish on a
+ * machine with fewer processors.
+ */
+public class ConcurrentQueueBenchmark {
+  /** Number of elements passed by each throughput run. */
+  protected static final int ELEMENTS = 2000000;
+  /** Number of round trips timed by the latency run. */
+  protected static final int ROUND_TRIPS = 100000;
+  /** Capacity of the bounded queues. */
+  protected static final int CAPACITY = 1024;
+  /** Largest number of producers (and of consumers) of the
+    * multi-producer runs. */
+  protected static final int MAX_THREADS = 4;
+  /** Number of elements offered by each producer of the stress check. */
+  protected static final int STRESS_ELEMENTS = 200000;
+  /** Largest number of elements moved by one drainTo of the stress
+    * check. */
+  protected static final int DRAIN_BATCH = 16;
+  /** Number of times each run is repeated before it is timed. */
+  protected static final int WARMUPS = 2;
+  /** Elements passed through the queues, boxed once up front. */
+  protected static final Integer[] VALUES = new Integer[CAPACITY];
+  static {
+    for (int i = 0; i < CAPACITY; i++) VALUES[i] = i;
+  }
+
+  /** A queue shared by threads, as used by the workloads. */
+  protected static abstract class Channel {
+    /** Inserts an element if there is room; returns whether it did. */
+    abstract boolean offer(Integer x);
+    /** Removes an element, or returns null if there is none. */
+    abstract Integer poll();
+    /** Inserts an element, yielding while the queue is full. */
+    void put(Integer x) {
+      while (!offer(x)) Thread.yield();
+    }
+    /** Removes an element, yielding while the queue is empty. */
+    Integer take() {
+      Integer x;
+      while ((x = poll()) == null) Thread.yield();
+      return x;
+    }
+  }
+
+  /** Wraps a NodeQueue, locking it for each operation. */
+  protected static Channel synchronizedQueue(final NodeQueue<Integer> q) {
+    return new Channel() {
+      boolean offer(Integer x) {
+	synchronized (q) { q.enqueue(x); }
+	return true;
+      }
+      Integer poll() {
+	synchronized (q) { return q.isEmpty() ? null : q.dequeue(); }
+      }
+    };
+  }
+  /** Wraps a single-producer, single-consumer queue. */
+  protected static Channel of(final SpscArrayQueue<Integer> q) {
+    return new Channel() {
+      boolean offer(Integer x) { return q.offer(x); }
+      Integer poll() { return q.poll(); }
+    };
+  }
+  /** Wraps a multi-producer, multi-consumer queue. */
+  protected static Channel of(final MpmcArrayQueue<Integer> q) {
+    return new Channel() {
+      boolean offer(Integer x) { return q.offer(x); }
+      Integer poll() { return q.poll(); }
+    };
+  }
+  /** Names of the queues compared. */
+  protected static final String[] QUEUES =
+    { "synchronized NodeQueue", "SpscArrayQueue", "MpmcArrayQueue" };
+  /** Returns a new, empty queue of the given index in QUEUES. */
+  protected static Channel newQueue(int i) {
+    switch (i) {
+    case 0: return synchronizedQueue(new NodeQueue<Integer>());
+    case 1: return of(new SpscArrayQueue<Integer>(CAPACITY));
+    default: return of(new MpmcArrayQueue<Integer>(CAPACITY));
+    }
+  }
+
+  /** Passes ELEMENTS elements through the queue from each of the given
+    * number of producers to as many consumers, and returns the number
+    * of elements passed per second. */
+  protected static double throughput(final Channel q, int threads)
+    throws InterruptedException {
+    Thread[] T = new Thread[2 * threads];
+    final long[] sums = new long[threads];
+    for (int p = 0; p < threads; p++)
+      T[p] = new Thread() {
+	  public void run() {
+	    for (int i = 0; i < ELEMENTS; i++)
+	      q.put(VALUES[i & (CAPACITY - 1)]);
+	  }
+	};
+    for (int c = 0; c < threads; c++) {
+      final int id = c;
+      T[threads + c] = new Thread() {
+	  public void run() {
+	    long sum = 0;
+	    for (int i = 0; i < ELEMENTS; i++)
+	      sum += q.take();
+	    sums[id] = sum;
+	  }
+	};
+    }
+    long start = System.nanoTime();
+    for (Thread t : T) t.start();
+    for (Thread t : T) t.join();
+    double seconds = (System.nanoTime() - start) / 1e9;
+    long sum = 0, expected = 0;
+    for (long s : sums) sum += s;
+    for (int i = 0; i < ELEMENTS; i++) expected += i & (CAPACITY - 1);
+    if (sum != expected * threads)
+      throw new IllegalStateException("elements lost or duplicated");
+    return (double) ELEMENTS * threads / seconds;
+  }
+  /**
+   * Checks that a multi-producer, multi-consumer queue neither loses
+   * nor duplicates elements: each of the given number of producers
+   * offers STRESS_ELEMENTS distinct values, while as many consumers
+   * take them with poll and with drainTo, into a queue that refuses
+   * every seventh element.  Throws IllegalStateException unless the
+   * count and the sum of the values taken match those offered and the
+   * queue ends empty.
+   */
+  protected static void stress(final MpmcArrayQueue<Integer> q, int threads)
+    throws InterruptedException {
+    final int producers = threads;
+    final long total = (long) threads * STRESS_ELEMENTS;
+    final AtomicInteger done = new AtomicInteger();	// producers finished
+    final AtomicLong taken = new AtomicLong(), sum = new AtomicLong();
+    Thread[] T = new Thread[2 * threads];
+    for (int p = 0; p < threads; p++) {
+      final int base = p * STRESS_ELEMENTS;
+      T[p] = new Thread() {
+	  public void run() {
+	    for (int i = 0; i < STRESS_ELEMENTS; i++)
+	      while (!q.offer(base + i)) Thread.yield();
+	    done.incrementAndGet();
+	  }
+	};
+    }
+    for (int c = 0; c < threads; c++)
+      T[threads + c] = new Thread() {
+	  public void run() {
+	    NodeQueue<Integer> local = new NodeQueue<Integer>() {
+		int calls = 0;
+		public void enqueue(Integer x) {
+		  if (++calls % 7 == 0)
+		    throw new FullQueueException("Refused");
+		  super.enqueue(x);
+		}
+	      };
+	    long k = 0, s = 0;	// count and sum of the values taken
+	    for (int round = 0; done.get() < producers || !q.isEmpty(); round++) {
+	      if ((round & 1) == 0) {
+		Integer x = q.poll();
+		if (x != null) { k++; s += x; }
+	      }
+	      else
+		try {
+		  q.drainTo(local, DRAIN_BATCH);
+		} catch (UndeliveredElementException e) {
+		  k++;			// neither moved nor put back in q
+		  s += (Integer) e.getElement();
+		} catch (FullQueueException e) {
+		  // the refused element is back in q
+		}
+	      while (!local.isEmpty()) { k++; s += local.dequeue(); }
+	      if (round % 64 == 63)
+		Thread.yield();	// let the other threads run
+	    }
+	    taken.addAndGet(k);
+	    sum.addAndGet(s);
+	  }
+	};
+    for (Thread t : T) t.start();
+    for (Thread t : T) t.join();
+    if (taken.get() != total || sum.get() != total * (total - 1) / 2 || !q.isEmpty())
+      throw new IllegalStateException("elements lost or duplicated: "
+				      + taken.get() + " taken of " + total);
+  }
+  /** Bounces an element between two threads through a pair of queues
+    * and returns the round-trip times, in nanoseconds, sorted. */
+  protected static long[] roundTrips(final Channel there, final Channel back)
+    throws InterruptedException {
+    Thread echo = new Thread() {
+	public void run() {
+	  for (int i = 0; i < ROUND_TRIPS; i++)
+	    back.put(there.take());
+	}
+      };
+    echo.start();
+    long[] times = new long[ROUND_TRIPS];
+    for (int i = 0; i < ROUND_TRIPS; i++) {
+      long start = System.nanoTime();
+      there.put(VALUES[i & (CAPACITY - 1)]);
+      back.take();
+      times[i] = System.nanoTime() - start;
+    }
+    echo.join();
+    Arrays.sort(times);
+    return times;
+  }
+  /** Prints the throughput of each queue with one producer and one
+    * consumer, its round-trip latency, and the throughput of the
+    * multi-producer queues with more threads. */
+  protected static void compareQueues() throws InterruptedException {
+    System.out.println("One producer, one consumer (elements/s; round trip"
+		       + " p50/p99 in ns), "
+		       + Runtime.getRuntime().availableProcessors()
+		       + " processors:");
+    for (int i = 0; i < QUEUES.length; i++) {
+      for (int w = 0; w < WARMUPS; w++) {
+	throughput(newQueue(i), 1);
+	roundTrips(newQueue(i), newQueue(i));
+      }
+      double t = throughput(newQueue(i), 1);
+      long[] rt = roundTrips(newQueue(i), newQueue(i));
+      System.out.printf("  %-24s %12.0f %8d %8d%n", QUEUES[i], t,
+			rt[rt.length / 2], rt[(int) (rt.length * 0.99)]);
+    }
+    System.out.println("Producers and consumers (elements/s):");
+    for (int threads = 2; threads <= MAX_THREADS; threads *= 2) {
+      StringBuilder line = new StringBuilder("  " + threads + "+" + threads + ":");
+      for (int i = 0; i < QUEUES.length; i++) {
+	if (i == 1) continue;	// SpscArrayQueue allows one producer only
+	line.append(String.format(" %s %.0f", QUEUES[i],
+				  throughput(newQueue(i), threads)));
+      }
+      System.out.println(line);
+    }
+    for (int threads = 1; threads <= MAX_THREADS; threads *= 2)
+      stress(new MpmcArrayQueue<Integer>(CAPACITY), threads);
+    System.out.println("Stress check of MpmcArrayQueue passed with up to "
+		       + MAX_THREADS + "+" + MAX_THREADS + " threads.");
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    compareQueues();
+  }
+}
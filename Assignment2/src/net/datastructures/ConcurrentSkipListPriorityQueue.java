@@ -0,0 +1,92 @@
+package net.datastructures;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Strict, lock-free concurrent priority queue built on the JDK's
+ * lock-free skip list.  Entries are ordered by key and then by a
+ * sequence number drawn at insertion, so equal keys are removed in
+ * first-in first-out order and no two entries compare equal.
+ * <tt>insert</tt> and <tt>removeMin</tt> take O(log n) expected time
+ * and never block, but all removals compete for the front of the list;
+ * see {@link ConcurrentMultiPriorityQueue} for a relaxed queue that
+ * scales further.
+ *
+ * <p><tt>size</tt> and <tt>isEmpty</tt> read the same counter, which an
+ * insertion increments before adding its entry and a removal decrements
+ * after taking one, so it is never negative.  Under concurrent updates
+ * both are only a snapshot: they may count an entry that is still being
+ * inserted.
+ */
+public class ConcurrentSkipListPriorityQueue<K,V> implements PriorityQueue<K,V> {
+  protected final ConcurrentSkipListSet<SeqEntry<K,V>> entries;
+  protected final AtomicLong nextSeq = new AtomicLong();	// next sequence number
+  protected final AtomicInteger size = new AtomicInteger();	// number of entries
+  protected final Comparator<K> comp;	// comparator for the keys
+  /** Inner class for entries, with their sequence number. */
+  protected static class SeqEntry<K,V> implements Entry<K,V> {
+    protected final K key;
+    protected final V value;
+    protected final long seq;
+    SeqEntry(K k, V v, long s) { key = k; value = v; seq = s; }
+    public K getKey() { return key; }
+    public V getValue() { return value; }
+    public String toString() { return "(" + key  + "," + value + ")"; }
+  }
+  /** Creates an empty priority queue with the default comparator. */
+  public ConcurrentSkipListPriorityQueue() {
+    this(new DefaultComparator<K>());
+  }
+  /** Creates an empty priority queue with the given comparator. */
+  public ConcurrentSkipListPriorityQueue(Comparator<K> c) {
+    comp = c;
+    entries = new ConcurrentSkipListSet<SeqEntry<K,V>>(
+      new Comparator<SeqEntry<K,V>>() {
+	public int compare(SeqEntry<K,V> a, SeqEntry<K,V> b) {
+	  int cmp = comp.compare(a.key, b.key);
+	  if (cmp != 0) return cmp;
+	  return (a.seq < b.seq) ? -1 : ((a.seq == b.seq) ? 0 : 1);
+	}
+      });
+  }
+  /** Returns the number of entries in the priority queue (a snapshot). */
+  public int size() { return size.get(); }
+  /** Returns whether the priority queue is empty (a snapshot). */
+  public boolean isEmpty() { return size.get() == 0; }
+  /** Returns but does not remove an entry with minimum key. */
+  public Entry<K,V> min() throws EmptyPriorityQueueException {
+    try {
+      return entries.first();
+    } catch (NoSuchElementException e) {
+      throw new EmptyPriorityQueueException("Priority queue is empty");
+    }
+  }
+  /** Inserts a key-value pair and returns the entry created. */
+  public Entry<K,V> insert(K k, V x) throws InvalidKeyException {
+    checkKey(k);
+    SeqEntry<K,V> e = new SeqEntry<K,V>(k, x, nextSeq.getAndIncrement());
+    size.incrementAndGet();	// before the entry can be removed
+    entries.add(e);
+    return e;
+  }
+  /** Removes and returns an entry with minimum key. */
+  public Entry<K,V> removeMin() throws EmptyPriorityQueueException {
+    SeqEntry<K,V> e = entries.pollFirst();
+    if (e == null)
+      throw new EmptyPriorityQueueException("Priority queue is empty");
+    size.decrementAndGet();
+    return e;
+  }
+  /** Determines whether a given key is valid. */
+  protected void checkKey(K key) throws InvalidKeyException {
+    try {
+      comp.compare(key,key);
+    }
+    catch(Exception e) {
+      throw new InvalidKeyException("Invalid key");
+    }
+  }
+}
@@ -0,0 +1,143 @@
+package net.datastructures;
+import java.util.Comparator;
+
+/**
+ * Realization of a priority queue by means of a d-ary heap stored
+ * directly in an array of entries.  The children of the entry at index
+ * i are at indices d*i+1 to d*i+d, so moving through the heap is plain
+ * index arithmetic, and up-heap and down-heap bubbling move entries
+ * into a hole instead of swapping them.  A larger d makes the heap
+ * shallower, which speeds up insertion and improves memory locality,
+ * at the cost of more comparisons per level of down-heap bubbling.
+ *
+ * @see HeapPriorityQueue
+ * @see IntKeyHeap
+ */
+public class DaryHeapPriorityQueue<K,V> implements PriorityQueue<K,V> {
+  /** Default number of children per node. */
+  public static final int DEFAULT_ARITY = 4;
+  /** Default initial capacity of the array. */
+  public static final int CAPACITY = 16;
+  protected MyEntry<K,V>[] heap;	// heap entries in level order
+  protected int n = 0;			// number of entries
+  protected final int d;		// number of children per node
+  protected Comparator<K> comp;		// comparator for the keys
+  protected PriorityQueueMetrics metrics;	// null unless instrumented
+  /** Inner class for heap entries. */
+  protected static class MyEntry<K,V> implements Entry<K,V> {
+    protected K key;
+    protected V value;
+    public MyEntry(K k, V v) { key = k; value = v; }
+    public K getKey() { return key; }
+    public V getValue() { return value; }
+    public String toString() { return "(" + key  + "," + value + ")"; }
+  }
+  /** Creates an empty 4-ary heap with the default comparator */
+  public DaryHeapPriorityQueue() {
+    this(DEFAULT_ARITY, new DefaultComparator<K>());
+  }
+  /** Creates an empty 4-ary heap with the given comparator */
+  public DaryHeapPriorityQueue(Comparator<K> c) {
+    this(DEFAULT_ARITY, c);
+  }
+  /** Creates an empty heap with d children per node and the given
+    * comparator.
+    * @throws IllegalArgumentException if d is less than 2 */
+  public DaryHeapPriorityQueue(int d, Comparator<K> c) {
+    if (d < 2)
+      throw new IllegalArgumentException("arity must be at least 2");
+    this.d = d;
+    comp = c;
+    heap = (MyEntry<K,V>[]) new MyEntry[CAPACITY];
+  }
+  /** Sets the comparator used for comparing items in the heap.
+   * @throws IllegalStateException if priority queue is not empty */
+  public void setComparator(Comparator<K> c) throws IllegalStateException {
+    if (!isEmpty())
+      throw new IllegalStateException("Priority queue is not empty");
+    comp = c;
+  }
+  /** Returns the size of the heap */
+  public int size() { return n; }
+  /** Returns whether the heap is empty */
+  public boolean isEmpty() { return n == 0; }
+  /** Returns but does not remove an entry with minimum key */
+  public Entry<K,V> min() throws EmptyPriorityQueueException {
+    if (isEmpty())
+      throw new EmptyPriorityQueueException("Priority queue is empty");
+    return heap[0];
+  }
+  /** Inserts a key-value pair and returns the entry created
+    * @throws CapacityExceededException if the heap already holds
+    * ArrayQueue.MAX_CAPACITY entries */
+  public Entry<K,V> insert(K k, V x) throws InvalidKeyException {
+    checkKey(k);	// may throw an InvalidKeyException
+    if (n == heap.length) {	// grow the array
+      if (n == ArrayQueue.MAX_CAPACITY)
+	throw new CapacityExceededException("Heap has reached its maximum capacity");
+      MyEntry<K,V>[] a = (MyEntry<K,V>[]) new MyEntry[2 * heap.length];
+      System.arraycopy(heap, 0, a, 0, n);
+      heap = a;
+    }
+    MyEntry<K,V> entry = new MyEntry<K,V>(k, x);
+    upHeap(n++, entry);
+    return entry;
+  }
+  /** Removes and returns an entry with minimum key */
+  public Entry<K,V> removeMin() throws EmptyPriorityQueueException {
+    if (isEmpty())
+      throw new EmptyPriorityQueueException("Priority queue is empty");
+    MyEntry<K,V> min = heap[0];
+    MyEntry<K,V> last = heap[--n];
+    heap[n] = null;	// let the removed entry be garbage collected
+    if (n > 0)
+      downHeap(0, last);
+    return min;
+  }
+  /** Determines whether a given key is valid */
+  protected void checkKey(K key) throws InvalidKeyException {
+    try {
+      comp.compare(key,key);
+    }
+    catch(Exception e) {
+      throw new InvalidKeyException("Invalid key");
+    }
+  }
+  /** Performs up-heap bubbling of entry e from the hole at index i */
+  protected void upHeap(int i, MyEntry<K,V> e) {
+    while (i > 0) {
+      int p = (i - 1) / d;
+      if (comp.compare(heap[p].key, e.key) <= 0) break;
+      heap[i] = heap[p];	// move the parent down into the hole
+      if (metrics != null) metrics.recordSiftLevel();
+      i = p;
+    }
+    heap[i] = e;
+  }
+  /** Performs down-heap bubbling of entry e from the hole at index i */
+  protected void downHeap(int i, MyEntry<K,V> e) {
+    while (true) {
+      int first = d * i + 1;	// index of the first child
+      if (first >= n) break;
+      int last = Math.min(first + d, n);
+      int s = first;		// index of the smallest child
+      for (int c = first + 1; c < last; c++)
+	if (comp.compare(heap[c].key, heap[s].key) < 0)
+	  s = c;
+      if (comp.compare(heap[s].key, e.key) >= 0) break;
+      heap[i] = heap[s];	// move the smallest child up into the hole
+      if (metrics != null) metrics.recordSiftLevel();
+      i = s;
+    }
+    heap[i] = e;
+  }
+  /** Text visualization for debugging purposes */
+  public String toString() {
+    StringBuilder s = new StringBuilder("[");
+    for (int i = 0; i < n; i++) {
+      if (i > 0) s.append(", ");
+      s.append(heap[i]);
+    }
+    return s.append("]").toString();
+  }
+}
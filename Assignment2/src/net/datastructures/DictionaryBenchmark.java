@@ -0,0 +1,221 @@
+package net.datastructures;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Simple throughput benchmarks for the dictionary implementations.
+ * Run with <tt>java net.datastructures.DictionaryBenchmark</tt>; the
+ * figures are only meaningful relative to one another on one machine.
+ */
+public class DictionaryBenchmark {
+  /** Number of keys preloaded into each dictionary. */
+  protected static final int KEYS = 100000;
+  /** Length of each timed run, in milliseconds. */
+  protected static final int RUN_MILLIS = 1000;
+  /** Pause of the writer thread between two updates, in milliseconds. */
+  protected static final int WRITE_PAUSE_MILLIS = 1;
+  /** Number of keys loaded into each tree by the single-threaded
+    * workloads; kept moderate since sequential keys degenerate an
+    * unbalanced tree into a path. */
+  protected static final int WORKLOAD_KEYS = 10000;
+  /** Number of lookups timed by each single-threaded workload. */
+  protected static final int WORKLOAD_LOOKUPS = 200000;
+  /** Exponent of the Zipfian distribution of the skewed workload. */
+  protected static final double ZIPF_EXPONENT = 1.0;
+  /** Names of the single-threaded search trees compared. */
+  protected static final String[] TREES =
+    { "BinarySearchTree", "AVLTree", "RBTree", "SplayTree", "Treap" };
+
+  /** A dictionary together with the way readers and the writer use it. */
+  protected static abstract class Target {
+    abstract Entry<Integer,Integer> find(Integer k);
+    abstract Entry<Integer,Integer> insert(Integer k, Integer v);
+    abstract void remove(Entry<Integer,Integer> e);
+  }
+
+  /** The baseline: a red-black tree serialized behind a single lock. */
+  protected static Target synchronizedRBTree() {
+    final RBTree<Integer,Integer> t = new RBTree<Integer,Integer>();
+    return new Target() {
+      synchronized Entry<Integer,Integer> find(Integer k) { return t.find(k); }
+      synchronized Entry<Integer,Integer> insert(Integer k, Integer v) {
+	return t.insert(k, v);
+      }
+      synchronized void remove(Entry<Integer,Integer> e) { t.remove(e); }
+    };
+  }
+
+  /** The copy-on-write AVL tree, whose lookups never block. */
+  protected static Target concurrentAVLTree() {
+    final ConcurrentAVLTree<Integer,Integer> t =
+      new ConcurrentAVLTree<Integer,Integer>();
+    return new Target() {
+      Entry<Integer,Integer> find(Integer k) { return t.find(k); }
+      Entry<Integer,Integer> insert(Integer k, Integer v) {
+	return t.insert(k, v);
+      }
+      void remove(Entry<Integer,Integer> e) { t.remove(e); }
+    };
+  }
+
+  /** Returns a new, empty search tree of the given index in TREES. */
+  protected static Dictionary<Integer,Integer> newTree(int i) {
+    switch (i) {
+    case 0: return new BinarySearchTree<Integer,Integer>();
+    case 1: return new AVLTree<Integer,Integer>();
+    case 2: return new RBTree<Integer,Integer>();
+    case 3: return new SplayTree<Integer,Integer>();
+    default: return new Treap<Integer,Integer>();
+    }
+  }
+
+  /** Returns the keys 0 to n-1 in random order. */
+  protected static int[] shuffledKeys(int n, Random r) {
+    int[] a = new int[n];
+    for (int i = 0; i < n; i++) a[i] = i;
+    for (int i = n - 1; i > 0; i--) {
+      int j = r.nextInt(i + 1);
+      int t = a[i]; a[i] = a[j]; a[j] = t;
+    }
+    return a;
+  }
+  /**
+    * Returns m lookup keys in 0 to n-1 drawn from a Zipfian
+    * distribution with exponent s: the key of rank i is drawn with
+    * probability proportional to 1/i^s.  The ranks are mapped to keys by
+    * a random permutation, so the popular keys are spread over the tree.
+    */
+  protected static int[] zipfianKeys(int n, int m, double s, Random r) {
+    double[] cumulative = new double[n];
+    double sum = 0;
+    for (int i = 0; i < n; i++)
+      cumulative[i] = sum += 1 / Math.pow(i + 1, s);
+    int[] rankToKey = shuffledKeys(n, r);
+    int[] a = new int[m];
+    for (int j = 0; j < m; j++) {
+      double u = r.nextDouble() * sum;
+      int lo = 0, hi = n - 1;	// first rank whose cumulative weight exceeds u
+      while (lo < hi) {
+	int mid = (lo + hi) >>> 1;
+	if (cumulative[mid] <= u) lo = mid + 1;
+	else hi = mid;
+      }
+      a[j] = rankToKey[lo];
+    }
+    return a;
+  }
+  /**
+    * Inserts the given keys into a new tree of the given index, then
+    * looks up the given keys.  Returns the time taken by the inserts
+    * and by the lookups, in nanoseconds per operation.
+    */
+  protected static double[] runWorkload(int tree, int[] inserts, int[] lookups) {
+    Dictionary<Integer,Integer> d = newTree(tree);
+    long start = System.nanoTime();
+    for (int k : inserts)
+      d.insert(k, k);
+    long mid = System.nanoTime();
+    int found = 0;
+    for (int k : lookups)
+      if (d.find(k) != null) found++;
+    long end = System.nanoTime();
+    if (found != lookups.length)
+      throw new IllegalStateException("lookup failed");
+    return new double[] { (double) (mid - start) / inserts.length,
+			  (double) (end - mid) / lookups.length };
+  }
+  /**
+    * Prints the cost of inserts and lookups of the five search trees
+    * under three workloads: uniformly random keys, keys inserted and
+    * looked up in ascending order, and uniformly inserted keys looked up
+    * with a Zipfian skew.  Each workload is run once untimed to warm up.
+    */
+  protected static void compareWorkloads() {
+    Random r = new Random(42);
+    int n = WORKLOAD_KEYS, m = WORKLOAD_LOOKUPS;
+    int[] sequential = new int[n];
+    for (int i = 0; i < n; i++) sequential[i] = i;
+    int[] scan = new int[m];
+    for (int j = 0; j < m; j++) scan[j] = j % n;
+    int[] uniform = new int[m];
+    for (int j = 0; j < m; j++) uniform[j] = r.nextInt(n);
+    String[] names = { "uniform", "sequential", "zipfian" };
+    int[][] inserts = { shuffledKeys(n, r), sequential, shuffledKeys(n, r) };
+    int[][] lookups = { uniform, scan, zipfianKeys(n, m, ZIPF_EXPONENT, r) };
+    for (int w = 0; w < names.length; w++) {
+      System.out.println(names[w] + " workload, " + n + " keys, " + m
+			 + " lookups (ns/insert, ns/lookup):");
+      for (int i = 0; i < TREES.length; i++) {
+	runWorkload(i, inserts[w], lookups[w]);	// warm-up
+	double[] t = runWorkload(i, inserts[w], lookups[w]);
+	System.out.printf("  %-16s %10.1f %10.1f%n", TREES[i], t[0], t[1]);
+      }
+    }
+  }
+
+  /**
+    * Runs the given number of reader threads against the target for
+    * RUN_MILLIS milliseconds while one writer thread replaces a random
+    * entry every WRITE_PAUSE_MILLIS milliseconds.
+    * Returns the number of lookups per second.
+    */
+  protected static long readMostly(final Target t, int readers)
+    throws InterruptedException {
+    final Random r = new Random(42);
+    final AtomicReferenceArray<Entry<Integer,Integer>> live =	// shared with
+      new AtomicReferenceArray<Entry<Integer,Integer>>(KEYS);	// the writer
+    for (int i = 0; i < KEYS; i++)
+      live.set(i, t.insert(r.nextInt(), i));
+    final long[] counts = new long[readers];
+    final long end = System.currentTimeMillis() + RUN_MILLIS;
+    Thread[] threads = new Thread[readers + 1];
+    for (int i = 0; i < readers; i++) {
+      final int id = i;
+      threads[i] = new Thread() {
+	public void run() {
+	  Random rr = new Random(id);
+	  long n = 0;
+	  while ((n & 1023) != 0 || System.currentTimeMillis() < end) {
+	    t.find(live.get(rr.nextInt(KEYS)).getKey());
+	    n++;
+	  }
+	  counts[id] = n;
+	}
+      };
+    }
+    threads[readers] = new Thread() {	// the writer
+      public void run() {
+	Random rw = new Random(7);
+	while (System.currentTimeMillis() < end) {
+	  int i = rw.nextInt(KEYS);
+	  t.remove(live.get(i));
+	  live.set(i, t.insert(rw.nextInt(), i));
+	  try { Thread.sleep(WRITE_PAUSE_MILLIS); }
+	  catch (InterruptedException e) { return; }
+	}
+      }
+    };
+    for (Thread th : threads) th.start();
+    for (Thread th : threads) th.join();
+    long total = 0;
+    for (long c : counts) total += c;
+    return total * 1000 / RUN_MILLIS;
+  }
+
+  /** Prints lookups per second for 1 to 2*cores reader threads. */
+  protected static void compareConcurrentReads() throws InterruptedException {
+    int max = 2 * Runtime.getRuntime().availableProcessors();
+    System.out.println("Read-mostly workload (lookups/s), one writer:");
+    for (int readers = 1; readers <= max; readers *= 2) {
+      long base = readMostly(synchronizedRBTree(), readers);
+      long cow = readMostly(concurrentAVLTree(), readers);
+      System.out.println("  " + readers + " readers: synchronized RBTree "
+			 + base + ", ConcurrentAVLTree " + cow);
+    }
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    compareWorkloads();
+    compareConcurrentReads();
+  }
+}
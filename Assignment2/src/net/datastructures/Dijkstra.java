@@ -50,6 +50,25 @@ public class Dijkstra<V, E> {
     return (Integer) u.get(DIST);
   }
 //end#fragment execute
+  /** Executes Dijkstra's algorithm using the given (empty) adaptable
+    * priority queue, such as a {@link PairingHeapPriorityQueue} or a
+    * {@link FibonacciHeapPriorityQueue}, whose cheaper key decreases
+    * pay off on graphs with many edge relaxations, or a
+    * {@link MonotoneIntPriorityQueue}, since the distances removed from
+    * the queue never decrease.  Wrap the queue in an
+    * {@link InstrumentedAdaptablePriorityQueue} to measure the work it
+    * does.
+    * @param g Input graph
+    * @param s Source vertex
+    * @param w Weight decoration object
+    * @param q Auxiliary priority queue */
+  public void execute(Graph<V, E> g, Vertex<V> s, Object w,
+		      AdaptablePriorityQueue<Integer, Vertex<V>> q) {
+    graph = g;
+    WEIGHT = w;
+    Q = q;
+    dijkstraVisit(s);
+  }
 
   //begin#fragment dijkstraVisit
   /** The actual execution of Dijkstra's algorithm.
@@ -0,0 +1,10 @@
+package net.datastructures;
+
+/** Interface for the double-ended priority queue ADT: a priority queue
+  * that can also access and remove an entry with maximum key. */
+public interface DoubleEndedPriorityQueue<K,V> extends PriorityQueue<K,V> {
+  /** Returns but does not remove an entry with maximum key. */
+  public Entry<K,V> max() throws EmptyPriorityQueueException;
+  /** Removes and returns an entry with maximum key. */
+  public Entry<K,V> removeMax() throws EmptyPriorityQueueException;
+}
@@ -164,6 +164,7 @@ public class ExtendedAVLTree<K,V> extends AVLTree<K,V>{
 	 * Prints the AVL tree specified by the parameter on a new window. 
 	 * Each internal node is displayed by a circle containing its key and each external node is displayed by a rectangle. 
 	 * Size of circles and rectangles ensures method never prints a tree with crossing edges.
+	 * Needs a display and only suits small trees; use TreeRenderer to inspect large trees headlessly.
 	 */
 	public static <K, V> void print(AVLTree<K, V> tree){
         JFrame frame = new JFrame();
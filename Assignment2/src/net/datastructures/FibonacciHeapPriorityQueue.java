@@ -0,0 +1,244 @@
+package net.datastructures;
+import java.util.Comparator;
+
+/**
+ * Realization of an adaptable priority queue by means of a Fibonacci
+ * heap.  The heap is a collection of heap-ordered trees whose roots
+ * form a circular doubly linked list, and each node is itself the entry
+ * returned to the user.  <tt>insert</tt> just adds a one-node tree and
+ * lowering a key with <tt>replaceKey</tt> cuts the node from its parent
+ * (with cascading cuts of marked ancestors), both in O(1) amortized
+ * time; <tt>removeMin</tt> links trees of equal degree together, in
+ * O(log n) amortized time.  Raising a key removes and reinserts the
+ * entry.
+ *
+ * @see PairingHeapPriorityQueue
+ * @see HeapAdaptablePriorityQueue
+ */
+public class FibonacciHeapPriorityQueue<K,V> implements AdaptablePriorityQueue<K,V> {
+  /** Upper bound on the degree of a node, which is O(log n). */
+  protected static final int MAX_DEGREE = 64;
+  protected Node<K,V> min;	// root with minimum key, null if empty
+  protected int size = 0;	// number of entries
+  protected Comparator<K> comp;	// comparator for the keys
+  /** Nested class for the nodes of the heap, which are also its entries. */
+  protected static class Node<K,V> implements Entry<K,V> {
+    protected K key;
+    protected V value;
+    protected Node<K,V> parent, child;	// child is any one of the children
+    protected Node<K,V> left = this, right = this;	// circular sibling list
+    protected int degree = 0;		// number of children
+    protected boolean mark = false;	// whether a child was cut since
+					// the node became a child
+    protected boolean inHeap = true;	// false once removed
+    Node(K k, V v) { key = k; value = v; }
+    public K getKey() { return key; }
+    public V getValue() { return value; }
+    public String toString() { return "(" + key  + "," + value + ")"; }
+  }
+  /** Creates an empty heap with the default comparator. */
+  public FibonacciHeapPriorityQueue() { this(new DefaultComparator<K>()); }
+  /** Creates an empty heap with the given comparator. */
+  public FibonacciHeapPriorityQueue(Comparator<K> c) { comp = c; }
+  /** Returns the number of entries in the heap. */
+  public int size() { return size; }
+  /** Returns whether the heap is empty. */
+  public boolean isEmpty() { return size == 0; }
+  /** Returns but does not remove an entry with minimum key. */
+  public Entry<K,V> min() throws EmptyPriorityQueueException {
+    if (isEmpty())
+      throw new EmptyPriorityQueueException("Priority queue is empty");
+    return min;
+  }
+  /** Inserts a key-value pair and returns the entry created. */
+  public Entry<K,V> insert(K k, V x) throws InvalidKeyException {
+    checkKey(k);
+    Node<K,V> v = new Node<K,V>(k, x);
+    addRoot(v);
+    size++;
+    return v;
+  }
+  /** Removes and returns an entry with minimum key. */
+  public Entry<K,V> removeMin() throws EmptyPriorityQueueException {
+    if (isEmpty())
+      throw new EmptyPriorityQueueException("Priority queue is empty");
+    Node<K,V> z = min;
+    Node<K,V> c = z.child;	// move the children of z to the root list
+    for (int i = 0; i < z.degree; i++) {
+      Node<K,V> next = c.right;
+      c.parent = null;
+      c.mark = false;
+      splice(c, z);
+      c = next;
+    }
+    z.child = null;
+    z.degree = 0;
+    if (z.right == z)
+      min = null;
+    else {
+      min = z.right;
+      unlink(z);
+      consolidate();
+    }
+    z.left = z.right = z;
+    z.inHeap = false;
+    size--;
+    return z;
+  }
+  /** Removes and returns the given entry from the heap. */
+  public Entry<K,V> remove(Entry<K,V> e) throws InvalidEntryException {
+    Node<K,V> v = checkEntry(e);
+    if (v.parent != null) {	// make v a root, then remove it as the min
+      Node<K,V> p = v.parent;
+      cut(v, p);
+      cascadingCut(p);
+    }
+    min = v;
+    return removeMin();
+  }
+  /** Replaces the key of the given entry and returns the old key. */
+  public K replaceKey(Entry<K,V> e, K k)
+    throws InvalidEntryException, InvalidKeyException {
+    checkKey(k);
+    Node<K,V> v = checkEntry(e);
+    K oldKey = v.key;
+    if (comp.compare(k, oldKey) <= 0) {	// decrease key
+      v.key = k;
+      Node<K,V> p = v.parent;
+      if (p != null && comp.compare(k, p.key) < 0) {
+	cut(v, p);
+	cascadingCut(p);
+      }
+      if (comp.compare(k, min.key) < 0)
+	min = v;
+    }
+    else {				// increase: remove and reinsert
+      remove(v);
+      v.key = k;
+      v.inHeap = true;
+      addRoot(v);
+      size++;
+    }
+    return oldKey;
+  }
+  /** Replaces the value of the given entry and returns the old value. */
+  public V replaceValue(Entry<K,V> e, V x) throws InvalidEntryException {
+    Node<K,V> v = checkEntry(e);
+    V oldValue = v.value;
+    v.value = x;
+    return oldValue;
+  }
+  // Auxiliary methods
+  /** Determines whether a given key is valid. */
+  protected void checkKey(K key) throws InvalidKeyException {
+    try {
+      comp.compare(key,key);
+    }
+    catch(Exception e) {
+      throw new InvalidKeyException("Invalid key");
+    }
+  }
+  /** Checks whether a given entry is a node in a heap. */
+  protected Node<K,V> checkEntry(Entry<K,V> e) throws InvalidEntryException {
+    if (e == null || !(e instanceof Node))
+      throw new InvalidEntryException("Invalid entry");
+    Node<K,V> v = (Node<K,V>) e;
+    if (!v.inHeap)
+      throw new InvalidEntryException("Entry not in the priority queue");
+    return v;
+  }
+  /** Adds a single node to the root list, updating the minimum. */
+  protected void addRoot(Node<K,V> v) {
+    if (min == null) {
+      v.left = v.right = v;
+      min = v;
+    }
+    else {
+      splice(v, min);
+      if (comp.compare(v.key, min.key) < 0)
+	min = v;
+    }
+  }
+  /** Inserts node v into the circular list containing node w, just
+    * before w. */
+  protected void splice(Node<K,V> v, Node<K,V> w) {
+    v.right = w;
+    v.left = w.left;
+    w.left.right = v;
+    w.left = v;
+  }
+  /** Removes node v from its circular list. */
+  protected void unlink(Node<K,V> v) {
+    v.left.right = v.right;
+    v.right.left = v.left;
+    v.left = v.right = v;
+  }
+  /** Makes child v of node p a root. */
+  protected void cut(Node<K,V> v, Node<K,V> p) {
+    if (p.child == v)
+      p.child = (v.right == v) ? null : v.right;
+    unlink(v);
+    p.degree--;
+    v.parent = null;
+    v.mark = false;
+    splice(v, min);
+  }
+  /** Cuts marked ancestors of a node that lost a child, and marks the
+    * first unmarked one. */
+  protected void cascadingCut(Node<K,V> v) {
+    while (v.parent != null) {
+      if (!v.mark) {
+	v.mark = true;
+	return;
+      }
+      Node<K,V> p = v.parent;
+      cut(v, p);
+      v = p;
+    }
+  }
+  /** Links roots of equal degree until all degrees differ, and finds
+    * the new minimum. */
+  protected void consolidate() {
+    Node<K,V>[] byDegree = (Node<K,V>[]) new Node[MAX_DEGREE];
+    int roots = 0;		// count the roots before relinking them
+    Node<K,V> w = min;
+    do {
+      roots++;
+      w = w.right;
+    } while (w != min);
+    Node<K,V> next = min;
+    for (int i = 0; i < roots; i++) {
+      Node<K,V> x = next;
+      next = x.right;
+      int d = x.degree;
+      while (byDegree[d] != null) {
+	Node<K,V> y = byDegree[d];
+	if (comp.compare(y.key, x.key) < 0) {
+	  Node<K,V> t = x; x = y; y = t;
+	}
+	link(y, x);
+	byDegree[d++] = null;
+      }
+      byDegree[d] = x;
+    }
+    min = null;
+    for (Node<K,V> x : byDegree)
+      if (x != null && (min == null || comp.compare(x.key, min.key) < 0))
+	min = x;
+  }
+  /** Makes root y a child of root x. */
+  protected void link(Node<K,V> y, Node<K,V> x) {
+    unlink(y);
+    y.parent = x;
+    y.mark = false;
+    if (x.child == null)
+      x.child = y;
+    else
+      splice(y, x.child);
+    x.degree++;
+  }
+  /** Text visualization for debugging purposes */
+  public String toString() {
+    return "FibonacciHeap(size=" + size + ", min=" + min + ")";
+  }
+}
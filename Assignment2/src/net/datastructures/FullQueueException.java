@@ -0,0 +1,12 @@
+package net.datastructures;
+/**
+ * Runtime exception thrown when one tries to enqueue an element into a
+ * bounded queue that is full.
+ * @see SpscArrayQueue
+ * @see MpmcArrayQueue
+ */
+public class FullQueueException extends RuntimeException {
+  public FullQueueException(String err) {
+    super(err);
+  }
+}
@@ -0,0 +1,79 @@
+package net.datastructures;
+import java.util.Arrays;
+
+/**
+ * Implementation of the stack ADT using an array that grows and
+ * shrinks with the stack, so unlike {@link ArrayStack} it is only full
+ * once it holds ArrayQueue.MAX_CAPACITY (2^30) elements.  The array
+ * doubles when a push finds it full, and halves when a pop leaves it a
+ * quarter full (but never below its initial length).  The gap between
+ * the two thresholds means that pushes and pops alternating around a
+ * boundary cannot copy the array each time, so each operation takes
+ * O(1) amortized time, and the array is never more than four times
+ * longer than needed.
+ *
+ * @see IntArrayStack
+ * @see LongArrayStack
+ */
+public class GrowableArrayStack<E> implements Stack<E> {
+  /** Default initial length of the array. */
+  public static final int CAPACITY = 16;
+  protected E[] S;		// elements, bottom first
+  protected int n = 0;		// number of elements
+  protected final int minCapacity;	// initial length of the array
+  /** Creates an empty stack with an array of default length. */
+  public GrowableArrayStack() { this(CAPACITY); }
+  /** Creates an empty stack with an array of the given initial length.
+    * @throws IllegalArgumentException if cap is less than 1 or greater
+    * than ArrayQueue.MAX_CAPACITY */
+  public GrowableArrayStack(int cap) {
+    if (cap < 1 || cap > ArrayQueue.MAX_CAPACITY)
+      throw new IllegalArgumentException("capacity must be positive and at most 2^30");
+    minCapacity = cap;
+    S = (E[]) new Object[cap];
+  }
+  /** Returns the number of elements in the stack. */
+  public int size() { return n; }
+  /** Returns whether the stack is empty. */
+  public boolean isEmpty() { return n == 0; }
+  /** Returns the length of the array currently used. */
+  public int capacity() { return S.length; }
+  /** Inserts an element at the top of the stack.
+    * @throws CapacityExceededException if the stack already holds
+    * ArrayQueue.MAX_CAPACITY elements */
+  public void push(E element) {
+    if (n == S.length) {
+      if (n == ArrayQueue.MAX_CAPACITY)
+	throw new CapacityExceededException("Stack has reached its maximum capacity");
+      S = Arrays.copyOf(S, (int) Math.min(2L * n, ArrayQueue.MAX_CAPACITY));
+    }
+    S[n++] = element;
+  }
+  /** Returns the top element of the stack. */
+  public E top() throws EmptyStackException {
+    if (n == 0)
+      throw new EmptyStackException("Stack is empty.");
+    return S[n - 1];
+  }
+  /** Removes and returns the top element of the stack. */
+  public E pop() throws EmptyStackException {
+    if (n == 0)
+      throw new EmptyStackException("Stack is empty.");
+    E element = S[--n];
+    S[n] = null;		// dereference for garbage collection
+    if (n <= S.length / 4 && S.length / 2 >= minCapacity)
+      S = Arrays.copyOf(S, S.length / 2);
+    return element;
+  }
+  /** Removes all the elements and returns the array to its initial
+    * length. */
+  public void clear() {
+    S = (E[]) new Object[minCapacity];
+    n = 0;
+  }
+  /** Returns a string representation of the stack, with the top
+    * element at the end: [ ... , prev, top ]. */
+  public String toString() {
+    return Arrays.toString(Arrays.copyOf(S, n));
+  }
+}
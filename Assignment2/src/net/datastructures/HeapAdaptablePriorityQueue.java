@@ -29,6 +29,21 @@ public class HeapAdaptablePriorityQueue<K,V>
     upHeap(z);			// perform up-heap bubbling
     return entry;
   }
+  /** Creates a location-aware entry and adds it at the last node of
+   * the heap, without up-heap bubbling. */
+  protected Position<Entry<K,V>> addEntry(K k, V v) {
+    LocationAwareEntry<K,V> entry = new LocationAwareEntry<K,V>(k,v);
+    Position<Entry<K,V>> z = heap.add(entry);
+    entry.setLocation(z);
+    return z;
+  }
+  /** Creates a location-aware entry and stores it at the given node of
+   * the heap in place of its entry, without bubbling. */
+  protected Entry<K,V> putEntry(Position<Entry<K,V>> v, K k, V x) {
+    LocationAwareEntry<K,V> entry = new LocationAwareEntry<K,V>(k,x);
+    replaceEntry(v, entry);
+    return entry;
+  }
   /** Removes and returns the given entry from the heap. */
   public Entry<K,V> remove(Entry<K,V> entry) throws InvalidEntryException {
     LocationAwareEntry<K,V> ee = checkEntry(entry);
@@ -1,4 +1,5 @@
 package net.datastructures;
+import java.util.ArrayList;
 import java.util.Comparator;
 
 //begin#fragment HeapPriorityQueue
@@ -14,6 +15,9 @@ import java.util.Comparator;
 public class HeapPriorityQueue<K,V> implements PriorityQueue<K,V> {
   protected CompleteBinaryTree<Entry<K,V>> heap;	// underlying heap
   protected Comparator<K> comp;	// comparator for the keys
+//end#fragment HeapPriorityQueue
+  protected PriorityQueueMetrics metrics;	// null unless instrumented
+//begin#fragment HeapPriorityQueue
   /** Inner class for heap entries. */
   protected static class  MyEntry<K,V> implements Entry<K,V> {
     protected K key;
@@ -34,6 +38,44 @@ public class HeapPriorityQueue<K,V> implements PriorityQueue<K,V> {
     comp = c;
   }
 //end#fragment HeapPriorityQueue
+  /** Creates an empty heap with the given comparator, stored in the
+    * given complete binary tree (for example a
+    * {@link CompactCompleteBinaryTree}).
+    * @throws IllegalArgumentException if the tree is not empty */
+  public HeapPriorityQueue(CompleteBinaryTree<Entry<K,V>> tree, Comparator<K> c) {
+    if (!tree.isEmpty())
+      throw new IllegalArgumentException("Tree is not empty");
+    heap = tree;
+    comp = c;
+  }
+  /** Creates a heap with the default comparator holding the given
+    * key-value pairs, by bottom-up heap construction in O(n) time.
+    * @throws IllegalArgumentException if the arrays differ in length */
+  public HeapPriorityQueue(K[] keys, V[] values) throws InvalidKeyException {
+    this(keys, values, new DefaultComparator<K>());
+  }
+  /** Creates a heap with the given comparator holding the given
+    * key-value pairs, by bottom-up heap construction in O(n) time.
+    * @throws IllegalArgumentException if the arrays differ in length */
+  public HeapPriorityQueue(K[] keys, V[] values, Comparator<K> c)
+    throws InvalidKeyException {
+    this(c);
+    if (keys.length != values.length)
+      throw new IllegalArgumentException("keys and values differ in length");
+    for (K k : keys)
+      checkKey(k);
+    for (int i = 0; i < keys.length; i++)
+      addEntry(keys[i], values[i]);
+    buildHeap();
+  }
+  /** Creates a heap with the given comparator holding the key-value
+    * pairs of the given entries, by bottom-up heap construction in O(n)
+    * time. */
+  public HeapPriorityQueue(Iterable<? extends Entry<K,V>> entries, Comparator<K> c)
+    throws InvalidKeyException {
+    this(c);
+    insertAll(entries);
+  }
   /** Sets the comparator used for comparing items in the heap. 
    * @throws IllegalStateException if priority queue is not empty */
   public void setComparator(Comparator<K> c) throws IllegalStateException {
@@ -84,6 +126,73 @@ public class HeapPriorityQueue<K,V> implements PriorityQueue<K,V> {
     }
   }
   //end#fragment mainMethods
+  /**
+   * Inserts the key-value pairs of the given entries and returns the
+   * entries created, in the same order.  All keys are checked before
+   * the heap is modified.  The pairs are added at the end of the heap;
+   * a batch that is small relative to the heap is then bubbled up one
+   * entry at a time, in O(k log n) time, while a larger one is merged by
+   * bottom-up heap construction over the whole heap, in O(n + k) time.
+   */
+  public Iterable<Entry<K,V>> insertAll(Iterable<? extends Entry<K,V>> batch)
+    throws InvalidKeyException {
+    for (Entry<K,V> e : batch)
+      checkKey(e.getKey());	// may throw; the heap is unchanged
+    PositionList<Entry<K,V>> created = new NodePositionList<Entry<K,V>>();
+    ArrayList<Position<Entry<K,V>>> added = new ArrayList<Position<Entry<K,V>>>();
+    for (Entry<K,V> e : batch) {
+      Position<Entry<K,V>> v = addEntry(e.getKey(), e.getValue());
+      created.addLast(v.element());
+      added.add(v);
+    }
+    if ((long) added.size() * log2(size()) >= size())
+      buildHeap();
+    else
+      for (Position<Entry<K,V>> v : added)
+	upHeap(v);
+    return created;
+  }
+  /** Replaces an entry with minimum key by a new entry for the given
+    * key-value pair, with a single down-heap bubbling, and returns the
+    * entry removed.  Costs half as much as removeMin followed by insert.
+    * The new entry is created by putEntry, so subclasses get entries of
+    * their own kind.  This method is not public, since the new entry is
+    * not returned. */
+  protected Entry<K,V> replaceMin(K k, V x)
+    throws EmptyPriorityQueueException, InvalidKeyException {
+    if (isEmpty())
+      throw new EmptyPriorityQueueException("Priority queue is empty");
+    checkKey(k);
+    Entry<K,V> min = heap.root().element();
+    putEntry(heap.root(), k, x);
+    downHeap(heap.root());
+    return min;
+  }
+  /** Creates an entry for a key-value pair and adds it at the last
+    * node of the heap, without up-heap bubbling. */
+  protected Position<Entry<K,V>> addEntry(K k, V x) {
+    return heap.add(new MyEntry<K,V>(k,x));
+  }
+  /** Creates an entry for a key-value pair and stores it at the given
+    * node of the heap in place of its entry, without bubbling. */
+  protected Entry<K,V> putEntry(Position<Entry<K,V>> v, K k, V x) {
+    Entry<K,V> entry = new MyEntry<K,V>(k,x);
+    heap.replace(v, entry);
+    return entry;
+  }
+  /** Restores the heap-order property over the whole heap by bottom-up
+    * heap construction, in O(n) time. */
+  protected void buildHeap() {
+    ArrayList<Position<Entry<K,V>>> P = new ArrayList<Position<Entry<K,V>>>();
+    for (Position<Entry<K,V>> v : heap.positions())
+      P.add(v);		// positions in level order
+    for (int i = size() / 2 - 1; i >= 0; i--)
+      downHeap(P.get(i));
+  }
+  /** Returns the floor of the base-2 logarithm of n, which is at least 1. */
+  protected static int log2(int n) {
+    return Math.max(1, 31 - Integer.numberOfLeadingZeros(n));
+  }
   //begin#fragment auxiliary
    /** Performs up-heap bubbling */
   protected void upHeap(Position<Entry<K,V>> v) {
@@ -119,6 +228,9 @@ public class HeapPriorityQueue<K,V> implements PriorityQueue<K,V> {
     Entry<K,V> temp = x.element();
     heap.replace(x, y.element());
     heap.replace(y, temp);
+  //end#fragment auxiliary
+    if (metrics != null) metrics.recordSiftLevel();
+  //begin#fragment auxiliary
   }
   /** Text visualization for debugging purposes */
   public String toString() {
@@ -0,0 +1,172 @@
+package net.datastructures;
+import java.util.Arrays;
+
+/**
+ * Adaptable priority queue of dense integer ids with <tt>int</tt> keys,
+ * realized by a d-ary heap of ids.  Three arrays indexed by id or heap
+ * index replace the location-aware entries of
+ * {@link HeapAdaptablePriorityQueue}: the heap of ids, the heap index
+ * of each id, and the key of each id.  An id plays the role of an
+ * entry, so no object is created per insertion and an id is found in
+ * the heap in O(1) time; <tt>insert</tt>, <tt>remove</tt>,
+ * <tt>replaceKey</tt> and <tt>removeMin</tt> take O(log n) time.  The
+ * ids must lie between 0 and the capacity given at creation, as with
+ * the vertices of a graph numbered from 0.
+ *
+ * @see AdaptablePriorityQueue
+ * @see IntKeyHeap
+ */
+public class IndexedIntHeap {
+  protected int[] heap;		// ids in level order
+  protected int[] pos;		// heap index of each id, -1 if absent
+  protected int[] keys;		// key of each id in the heap
+  protected int n = 0;		// number of ids in the heap
+  protected final int d;	// number of children per node
+  /** Creates an empty 4-ary heap for the ids 0 to capacity-1. */
+  public IndexedIntHeap(int capacity) {
+    this(capacity, DaryHeapPriorityQueue.DEFAULT_ARITY);
+  }
+  /** Creates an empty heap with d children per node for the ids 0 to
+    * capacity-1.
+    * @throws IllegalArgumentException if d is less than 2 */
+  public IndexedIntHeap(int capacity, int d) {
+    if (d < 2)
+      throw new IllegalArgumentException("arity must be at least 2");
+    this.d = d;
+    heap = new int[capacity];
+    pos = new int[capacity];
+    keys = new int[capacity];
+    Arrays.fill(pos, -1);
+  }
+  /** Returns the number of ids in the heap. */
+  public int size() { return n; }
+  /** Returns whether the heap is empty. */
+  public boolean isEmpty() { return n == 0; }
+  /** Returns the number of ids the heap can hold. */
+  public int capacity() { return heap.length; }
+  /** Returns whether the given id is in the heap. */
+  public boolean contains(int id) {
+    return id >= 0 && id < pos.length && pos[id] >= 0;
+  }
+  /** Returns the key of an id in the heap. */
+  public int key(int id) throws InvalidEntryException {
+    return keys[checkId(id)];
+  }
+  /** Returns an id with minimum key. */
+  public int minId() throws EmptyPriorityQueueException {
+    checkEmpty();
+    return heap[0];
+  }
+  /** Returns the minimum key. */
+  public int minKey() throws EmptyPriorityQueueException {
+    checkEmpty();
+    return keys[heap[0]];
+  }
+  /** Inserts an id with the given key.
+    * @throws InvalidEntryException if the id is invalid or already in
+    * the heap */
+  public void insert(int id, int k) throws InvalidEntryException {
+    if (id < 0 || id >= pos.length)
+      throw new InvalidEntryException("Invalid id");
+    if (pos[id] >= 0)
+      throw new InvalidEntryException("Id already in the heap");
+    keys[id] = k;
+    upHeap(n++, id);
+  }
+  /** Removes and returns an id with minimum key. */
+  public int removeMin() throws EmptyPriorityQueueException {
+    checkEmpty();
+    int min = heap[0];
+    removeAt(0);
+    return min;
+  }
+  /** Removes the given id from the heap and returns its key. */
+  public int remove(int id) throws InvalidEntryException {
+    checkId(id);
+    removeAt(pos[id]);
+    return keys[id];
+  }
+  /** Replaces the key of the given id and returns the old key. */
+  public int replaceKey(int id, int k) throws InvalidEntryException {
+    checkId(id);
+    int oldKey = keys[id];
+    keys[id] = k;
+    if (k < oldKey)
+      upHeap(pos[id], id);
+    else
+      downHeap(pos[id], id);
+    return oldKey;
+  }
+  /** Lowers the key of the given id, as the relaxation step of
+    * Dijkstra's algorithm does.
+    * @throws InvalidKeyException if the key is larger than the current
+    * key of the id */
+  public void decreaseKey(int id, int k)
+    throws InvalidEntryException, InvalidKeyException {
+    checkId(id);
+    if (k > keys[id])
+      throw new InvalidKeyException("Key is larger than the current key");
+    keys[id] = k;
+    upHeap(pos[id], id);
+  }
+  /** Removes all ids from the heap in O(n) time. */
+  public void clear() {
+    for (int i = 0; i < n; i++)
+      pos[heap[i]] = -1;
+    n = 0;
+  }
+  // Auxiliary methods
+  /** Removes the id at heap index i, filling the hole with the last id. */
+  protected void removeAt(int i) {
+    int id = heap[i];
+    pos[id] = -1;
+    int last = heap[--n];
+    if (i == n) return;	// the removed id was the last one
+    if (i > 0 && keys[last] < keys[heap[(i - 1) / d]])
+      upHeap(i, last);
+    else
+      downHeap(i, last);
+  }
+  /** Performs up-heap bubbling of the given id from the hole at index i */
+  protected void upHeap(int i, int id) {
+    int k = keys[id];
+    while (i > 0) {
+      int p = (i - 1) / d;
+      if (keys[heap[p]] <= k) break;
+      heap[i] = heap[p];	// move the parent down into the hole
+      pos[heap[i]] = i;
+      i = p;
+    }
+    heap[i] = id;
+    pos[id] = i;
+  }
+  /** Performs down-heap bubbling of the given id from the hole at index i */
+  protected void downHeap(int i, int id) {
+    int k = keys[id];
+    while (true) {
+      int first = d * i + 1;
+      if (first >= n) break;
+      int last = Math.min(first + d, n);
+      int s = first;		// index of the child with the smallest key
+      for (int c = first + 1; c < last; c++)
+	if (keys[heap[c]] < keys[heap[s]]) s = c;
+      if (keys[heap[s]] >= k) break;
+      heap[i] = heap[s];	// move the smallest child up into the hole
+      pos[heap[i]] = i;
+      i = s;
+    }
+    heap[i] = id;
+    pos[id] = i;
+  }
+  /** Checks that an id is in the heap and returns it. */
+  protected int checkId(int id) throws InvalidEntryException {
+    if (!contains(id))
+      throw new InvalidEntryException("Id not in the heap");
+    return id;
+  }
+  /** Throws an exception if the heap is empty. */
+  protected void checkEmpty() throws EmptyPriorityQueueException {
+    if (n == 0)
+      throw new EmptyPriorityQueueException("Priority queue is empty");
+  }
+}
@@ -0,0 +1,50 @@
+package net.datastructures;
+
+/**
+ * Decorator that forwards every operation to an adaptable priority
+ * queue and records it into a {@link PriorityQueueMetrics} object, as
+ * {@link InstrumentedPriorityQueue} does.  It can be given to
+ * {@link Dijkstra#execute(Graph,Vertex,Object,AdaptablePriorityQueue)
+ * Dijkstra's algorithm} to measure the queue it runs on.
+ */
+public class InstrumentedAdaptablePriorityQueue<K,V>
+  extends InstrumentedPriorityQueue<K,V>
+  implements AdaptablePriorityQueue<K,V> {
+  protected final AdaptablePriorityQueue<K,V> adaptable;	// decorated queue
+  /** Creates a decorator recording the operations on q into m.
+    * @throws IllegalStateException if q is already instrumented */
+  public InstrumentedAdaptablePriorityQueue(AdaptablePriorityQueue<K,V> q,
+					    PriorityQueueMetrics m)
+    throws IllegalStateException {
+    super(q, m);
+    adaptable = q;
+  }
+  /** Removes and returns the given entry. */
+  public Entry<K,V> remove(Entry<K,V> e) throws InvalidEntryException {
+    long c = metrics.comparisons, l = metrics.siftLevels, t = System.nanoTime();
+    try {
+      return adaptable.remove(e);
+    } finally {
+      metrics.recordOperation(PriorityQueueMetrics.REMOVE, c, l, t);
+    }
+  }
+  /** Replaces the key of the given entry and returns the old key. */
+  public K replaceKey(Entry<K,V> e, K k)
+    throws InvalidEntryException, InvalidKeyException {
+    long c = metrics.comparisons, l = metrics.siftLevels, t = System.nanoTime();
+    try {
+      return adaptable.replaceKey(e, k);
+    } finally {
+      metrics.recordOperation(PriorityQueueMetrics.REPLACE_KEY, c, l, t);
+    }
+  }
+  /** Replaces the value of the given entry and returns the old value. */
+  public V replaceValue(Entry<K,V> e, V x) throws InvalidEntryException {
+    long c = metrics.comparisons, l = metrics.siftLevels, t = System.nanoTime();
+    try {
+      return adaptable.replaceValue(e, x);
+    } finally {
+      metrics.recordOperation(PriorityQueueMetrics.REPLACE_VALUE, c, l, t);
+    }
+  }
+}
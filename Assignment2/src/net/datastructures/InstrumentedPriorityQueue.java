@@ -0,0 +1,93 @@
+package net.datastructures;
+
+/**
+ * Decorator that forwards every operation to a priority queue and
+ * records its comparisons, sift depth and latency into a
+ * {@link PriorityQueueMetrics} object.  If the queue is a
+ * {@link HeapPriorityQueue} or a {@link DaryHeapPriorityQueue}, the
+ * decorator also has it record the levels its entries move; to count
+ * comparisons, create the queue with a comparator from
+ * {@link PriorityQueueMetrics#countingComparator countingComparator}.
+ * A heap can be decorated by only one decorator at a time; call
+ * {@link #detach detach} before decorating it again.
+ *
+ * @see InstrumentedAdaptablePriorityQueue
+ */
+public class InstrumentedPriorityQueue<K,V> implements PriorityQueue<K,V> {
+  protected final PriorityQueue<K,V> queue;	// decorated queue
+  protected final PriorityQueueMetrics metrics;	// where to record
+  /** Creates a decorator recording the operations on q into m.
+    * @throws IllegalStateException if q already records the levels its
+    * entries move, because another decorator was created for it and
+    * not detached */
+  public InstrumentedPriorityQueue(PriorityQueue<K,V> q, PriorityQueueMetrics m)
+    throws IllegalStateException {
+    if (hook(q) != null)
+      throw new IllegalStateException("Priority queue is already instrumented");
+    queue = q;
+    metrics = m;
+    setHook(q, m);
+  }
+  /** Has the decorated queue stop recording the levels its entries move
+    * and returns it, so that it can be used directly or decorated
+    * again.  The operations still made through this decorator are
+    * recorded without their sift levels. */
+  public PriorityQueue<K,V> detach() {
+    if (hook(queue) == metrics)
+      setHook(queue, null);
+    return queue;
+  }
+  /** Returns the metrics the given queue records its sift levels into,
+    * or null if there are none. */
+  protected static <K,V> PriorityQueueMetrics hook(PriorityQueue<K,V> q) {
+    if (q instanceof HeapPriorityQueue)
+      return ((HeapPriorityQueue<K,V>) q).metrics;
+    else if (q instanceof DaryHeapPriorityQueue)
+      return ((DaryHeapPriorityQueue<K,V>) q).metrics;
+    return null;
+  }
+  /** Has the given queue record its sift levels into m (none if null),
+    * if it is a heap that can. */
+  protected static <K,V> void setHook(PriorityQueue<K,V> q, PriorityQueueMetrics m) {
+    if (q instanceof HeapPriorityQueue)
+      ((HeapPriorityQueue<K,V>) q).metrics = m;
+    else if (q instanceof DaryHeapPriorityQueue)
+      ((DaryHeapPriorityQueue<K,V>) q).metrics = m;
+  }
+  /** Returns the metrics recorded into. */
+  public PriorityQueueMetrics metrics() { return metrics; }
+  /** Returns a snapshot of the metrics recorded so far. */
+  public PriorityQueueMetrics.Snapshot snapshot() { return metrics.snapshot(); }
+  /** Returns the number of entries in the priority queue. */
+  public int size() { return queue.size(); }
+  /** Returns whether the priority queue is empty. */
+  public boolean isEmpty() { return queue.isEmpty(); }
+  /** Returns but does not remove an entry with minimum key. */
+  public Entry<K,V> min() throws EmptyPriorityQueueException {
+    long c = metrics.comparisons, l = metrics.siftLevels, t = System.nanoTime();
+    try {
+      return queue.min();
+    } finally {
+      metrics.recordOperation(PriorityQueueMetrics.MIN, c, l, t);
+    }
+  }
+  /** Inserts a key-value pair and returns the entry created. */
+  public Entry<K,V> insert(K k, V x) throws InvalidKeyException {
+    long c = metrics.comparisons, l = metrics.siftLevels, t = System.nanoTime();
+    try {
+      return queue.insert(k, x);
+    } finally {
+      metrics.recordOperation(PriorityQueueMetrics.INSERT, c, l, t);
+    }
+  }
+  /** Removes and returns an entry with minimum key. */
+  public Entry<K,V> removeMin() throws EmptyPriorityQueueException {
+    long c = metrics.comparisons, l = metrics.siftLevels, t = System.nanoTime();
+    try {
+      return queue.removeMin();
+    } finally {
+      metrics.recordOperation(PriorityQueueMetrics.REMOVE_MIN, c, l, t);
+    }
+  }
+  public String toString() { return queue.toString(); }
+}
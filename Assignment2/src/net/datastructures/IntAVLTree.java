@@ -0,0 +1,173 @@
+package net.datastructures;
+
+/**
+ * Realization of a dictionary with <tt>int</tt> keys by means of a
+ * compact AVL tree.  Keys are stored in primitive fields and compared
+ * directly, so lookups neither box keys nor call a comparator.  The
+ * layout is that of {@link CompactAVLTree}: each node is itself the
+ * entry, missing children are <tt>null</tt>, and there are no parent
+ * references.  It offers the methods of the {@link Dictionary}
+ * interface with primitive keys, plus range queries.
+ *
+ * @see LongRBTree
+ */
+public class IntAVLTree<V> {
+  protected Node<V> root;	// root of the tree, null if empty
+  protected int numEntries = 0;	// number of entries
+  private boolean removed;	// whether the last remove found its entry
+  /** Nested class for the nodes of the tree, which are also its entries. */
+  protected static class Node<V> implements Entry<Integer,V> {
+    protected int key;
+    protected V value;
+    protected Node<V> left, right;
+    protected byte height = 1;	// height of the subtree rooted here
+    Node(int k, V v) { key = k; value = v; }
+    /** Returns the key without boxing it. */
+    public int intKey() { return key; }
+    public Integer getKey() { return key; }
+    public V getValue() { return value; }
+    public String toString() { return "(" + key + "," + value + ")"; }
+  }
+  /** Returns the number of entries in the tree. */
+  public int size() { return numEntries; }
+  /** Returns whether the tree is empty. */
+  public boolean isEmpty() { return numEntries == 0; }
+  /** Returns an entry containing the given key.  Returns null if no
+    * such entry exists. */
+  public Entry<Integer,V> find(int key) {
+    Node<V> v = root;
+    while (v != null) {
+      if (key < v.key) v = v.left;
+      else if (key > v.key) v = v.right;
+      else return v;
+    }
+    return null;
+  }
+  /** Returns an iterable collection of all the entries containing the
+    * given key. */
+  public Iterable<Entry<Integer,V>> findAll(int key) {
+    return range(key, key);
+  }
+  /** Returns an iterable collection of all the entries whose keys are
+    * between lo and hi (inclusive), in key order. */
+  public Iterable<Entry<Integer,V>> range(int lo, int hi) {
+    PositionList<Entry<Integer,V>> L = new NodePositionList<Entry<Integer,V>>();
+    addRange(L, root, lo, hi);
+    return L;
+  }
+  /** Returns an iterable collection of all the entries, in key order. */
+  public Iterable<Entry<Integer,V>> entries() {
+    return range(Integer.MIN_VALUE, Integer.MAX_VALUE);
+  }
+  /** Inserts an entry into the tree and returns the newly created entry. */
+  public Entry<Integer,V> insert(int k, V x) {
+    Node<V> node = new Node<V>(k, x);
+    root = insert(root, node);
+    numEntries++;
+    return node;
+  }
+  /** Removes and returns a given entry, or returns null if the entry
+    * is not in the tree. */
+  public Entry<Integer,V> remove(Entry<Integer,V> ent)
+    throws InvalidEntryException {
+    if (ent == null || !(ent instanceof Node))
+      throw new InvalidEntryException("invalid entry");
+    Node<V> x = (Node<V>) ent;
+    removed = false;
+    root = remove(root, x.key, x);
+    if (!removed) return null;
+    numEntries--;
+    return ent;
+  }
+  // Auxiliary methods
+  /** Returns the height of a subtree (0 for the empty subtree). */
+  protected static <V> int height(Node<V> v) {
+    return (v == null) ? 0 : v.height;
+  }
+  /** Recomputes the height of a node from those of its children. */
+  protected static <V> void setHeight(Node<V> v) {
+    v.height = (byte) (1 + Math.max(height(v.left), height(v.right)));
+  }
+  /** Inserts node x into the subtree rooted at v and returns the new
+    * root of the subtree. */
+  protected Node<V> insert(Node<V> v, Node<V> x) {
+    if (v == null) return x;
+    if (x.key <= v.key)	// equal keys go left
+      v.left = insert(v.left, x);
+    else
+      v.right = insert(v.right, x);
+    return rebalance(v);
+  }
+  /** Removes node x (with key k) from the subtree rooted at v and
+    * returns the new root of the subtree. */
+  protected Node<V> remove(Node<V> v, int k, Node<V> x) {
+    if (v == null) return null;
+    if (v == x) {	// found: splice in the successor node itself
+      removed = true;
+      if (v.left == null) return v.right;
+      if (v.right == null) return v.left;
+      Node<V> s = v.right;
+      while (s.left != null) s = s.left;
+      s.right = removeMin(v.right);
+      s.left = v.left;
+      v.left = v.right = null;
+      return rebalance(s);
+    }
+    if (k <= v.key)	// equal keys may be on either side
+      v.left = remove(v.left, k, x);
+    if (k >= v.key && !removed)
+      v.right = remove(v.right, k, x);
+    return removed ? rebalance(v) : v;
+  }
+  /** Unlinks the leftmost node of a nonempty subtree and returns the
+    * new root of the subtree. */
+  protected Node<V> removeMin(Node<V> v) {
+    if (v.left == null) return v.right;
+    v.left = removeMin(v.left);
+    return rebalance(v);
+  }
+  /** Recomputes the height of v, performs a single or double rotation
+    * if v is unbalanced, and returns the new root of the subtree. */
+  protected Node<V> rebalance(Node<V> v) {
+    int bf = height(v.left) - height(v.right);
+    if (bf > 1) {
+      if (height(v.left.left) < height(v.left.right))
+	v.left = rotateLeft(v.left);
+      return rotateRight(v);
+    }
+    if (bf < -1) {
+      if (height(v.right.right) < height(v.right.left))
+	v.right = rotateRight(v.right);
+      return rotateLeft(v);
+    }
+    setHeight(v);
+    return v;
+  }
+  /** Rotates the left child of v above v and returns it. */
+  protected Node<V> rotateRight(Node<V> v) {
+    Node<V> u = v.left;
+    v.left = u.right;
+    u.right = v;
+    setHeight(v);
+    setHeight(u);
+    return u;
+  }
+  /** Rotates the right child of v above v and returns it. */
+  protected Node<V> rotateLeft(Node<V> v) {
+    Node<V> u = v.right;
+    v.right = u.left;
+    u.left = v;
+    setHeight(v);
+    setHeight(u);
+    return u;
+  }
+  /** Adds to L, in inorder, the entries of the subtree rooted at v
+    * whose keys are between lo and hi. */
+  protected void addRange(PositionList<Entry<Integer,V>> L, Node<V> v,
+			  int lo, int hi) {
+    if (v == null) return;
+    if (lo <= v.key) addRange(L, v.left, lo, hi);
+    if (lo <= v.key && v.key <= hi) L.addLast(v);
+    if (v.key <= hi) addRange(L, v.right, lo, hi);
+  }
+}
@@ -0,0 +1,93 @@
+package net.datastructures;
+import java.util.Arrays;
+
+/**
+ * Deque of <tt>int</tt> values in a circular array, laid out like that
+ * of {@link CircularArrayDeque}.  Values are neither boxed nor wrapped in
+ * nodes.  It offers the methods of the {@link Deque} interface with
+ * primitive elements.
+ *
+ * @see CircularArrayDeque
+ * @see IntArrayQueue
+ */
+public class IntArrayDeque {
+  protected int[] D;		// circular array of values
+  protected int head = 0;	// index of the first value
+  protected int n = 0;		// number of values
+  /** Creates an empty deque with an array of default length. */
+  public IntArrayDeque() { this(ArrayQueue.CAPACITY); }
+  /** Creates an empty deque with an array long enough for cap values.
+    * @throws IllegalArgumentException if cap is less than 1 */
+  public IntArrayDeque(int cap) {
+    D = new int[ArrayQueue.ceilPowerOfTwo(cap)];
+  }
+  /** Returns the number of values in the deque. */
+  public int size() { return n; }
+  /** Returns whether the deque is empty. */
+  public boolean isEmpty() { return n == 0; }
+  /** Returns the first value. */
+  public int getFirst() throws EmptyDequeException {
+    if (n == 0)
+      throw new EmptyDequeException("Deque is empty.");
+    return D[head];
+  }
+  /** Returns the last value. */
+  public int getLast() throws EmptyDequeException {
+    if (n == 0)
+      throw new EmptyDequeException("Deque is empty.");
+    return D[(head + n - 1) & (D.length - 1)];
+  }
+  /** Inserts a value to be the first in the deque.
+    * @throws CapacityExceededException if the deque already holds 2^30 elements */
+  public void addFirst(int x) {
+    if (n == D.length)
+      grow();
+    head = (head - 1) & (D.length - 1);
+    D[head] = x;
+    n++;
+  }
+  /** Inserts a value to be the last in the deque.
+    * @throws CapacityExceededException if the deque already holds 2^30 elements */
+  public void addLast(int x) {
+    if (n == D.length)
+      grow();
+    D[(head + n++) & (D.length - 1)] = x;
+  }
+  /** Removes and returns the first value. */
+  public int removeFirst() throws EmptyDequeException {
+    if (n == 0)
+      throw new EmptyDequeException("Deque is empty.");
+    int x = D[head];
+    head = (head + 1) & (D.length - 1);
+    n--;
+    return x;
+  }
+  /** Removes and returns the last value. */
+  public int removeLast() throws EmptyDequeException {
+    if (n == 0)
+      throw new EmptyDequeException("Deque is empty.");
+    return D[(head + --n) & (D.length - 1)];
+  }
+  /** Removes all the values. */
+  public void clear() { head = n = 0; }
+  /** Returns a string representation of the deque, first value first. */
+  public String toString() {
+    int[] a = new int[n];
+    for (int i = 0; i < n; i++)
+      a[i] = D[(head + i) & (D.length - 1)];
+    return Arrays.toString(a);
+  }
+  /** Doubles the array, moving the values to its start.
+    * @throws CapacityExceededException if the array already has the maximum
+    * length, ArrayQueue.MAX_CAPACITY */
+  protected void grow() throws CapacityExceededException {
+    if (D.length == ArrayQueue.MAX_CAPACITY)
+      throw new CapacityExceededException("Deque has reached its maximum capacity");
+    int[] a = new int[2 * D.length];
+    int k = D.length - head;	// values from head to the end of D
+    System.arraycopy(D, head, a, 0, k);
+    System.arraycopy(D, 0, a, k, head);
+    D = a;
+    head = 0;
+  }
+}
@@ -0,0 +1,73 @@
+package net.datastructures;
+import java.util.Arrays;
+
+/**
+ * Queue of <tt>int</tt> values in a circular array, laid out like that
+ * of {@link ArrayQueue}.  Values are neither boxed nor wrapped in nodes,
+ * which suits large queues such as the frontier of a breadth-first
+ * search over vertex indices.  It offers the methods of the
+ * {@link Queue} interface with primitive elements.
+ *
+ * @see ArrayQueue
+ * @see IntArrayDeque
+ */
+public class IntArrayQueue {
+  protected int[] Q;		// circular array of values
+  protected int head = 0;	// index of the front value
+  protected int n = 0;		// number of values
+  /** Creates an empty queue with an array of default length. */
+  public IntArrayQueue() { this(ArrayQueue.CAPACITY); }
+  /** Creates an empty queue with an array long enough for cap values.
+    * @throws IllegalArgumentException if cap is less than 1 */
+  public IntArrayQueue(int cap) {
+    Q = new int[ArrayQueue.ceilPowerOfTwo(cap)];
+  }
+  /** Returns the number of values in the queue. */
+  public int size() { return n; }
+  /** Returns whether the queue is empty. */
+  public boolean isEmpty() { return n == 0; }
+  /** Returns the value at the front of the queue. */
+  public int front() throws EmptyQueueException {
+    if (n == 0)
+      throw new EmptyQueueException("Queue is empty.");
+    return Q[head];
+  }
+  /** Inserts a value at the rear of the queue.
+    * @throws CapacityExceededException if the queue already holds 2^30 elements */
+  public void enqueue(int x) {
+    if (n == Q.length)
+      grow();
+    Q[(head + n++) & (Q.length - 1)] = x;
+  }
+  /** Removes and returns the value at the front of the queue. */
+  public int dequeue() throws EmptyQueueException {
+    if (n == 0)
+      throw new EmptyQueueException("Queue is empty.");
+    int x = Q[head];
+    head = (head + 1) & (Q.length - 1);
+    n--;
+    return x;
+  }
+  /** Removes all the values. */
+  public void clear() { head = n = 0; }
+  /** Returns a string representation of the queue, front first. */
+  public String toString() {
+    int[] a = new int[n];
+    for (int i = 0; i < n; i++)
+      a[i] = Q[(head + i) & (Q.length - 1)];
+    return Arrays.toString(a);
+  }
+  /** Doubles the array, moving the values to its start.
+    * @throws CapacityExceededException if the array already has the maximum
+    * length, ArrayQueue.MAX_CAPACITY */
+  protected void grow() throws CapacityExceededException {
+    if (Q.length == ArrayQueue.MAX_CAPACITY)
+      throw new CapacityExceededException("Queue has reached its maximum capacity");
+    int[] a = new int[2 * Q.length];
+    int k = Q.length - head;	// values from head to the end of Q
+    System.arraycopy(Q, head, a, 0, k);
+    System.arraycopy(Q, 0, a, k, head);
+    Q = a;
+    head = 0;
+  }
+}
@@ -0,0 +1,71 @@
+package net.datastructures;
+import java.util.Arrays;
+
+/**
+ * Stack of <tt>int</tt> values in an array that grows and shrinks like
+ * that of {@link GrowableArrayStack}.  Values are neither boxed nor
+ * wrapped in nodes, which suits large, short-lived stacks such as the
+ * frontier of a depth-first search over vertex indices.  It offers the
+ * methods of the {@link Stack} interface with primitive elements.
+ *
+ * @see GrowableArrayStack
+ */
+public class IntArrayStack {
+  protected int[] S;		// elements, bottom first
+  protected int n = 0;		// number of elements
+  protected final int minCapacity;	// initial length of the array
+  /** Creates an empty stack with an array of default length. */
+  public IntArrayStack() { this(GrowableArrayStack.CAPACITY); }
+  /** Creates an empty stack with an array of the given initial length.
+    * @throws IllegalArgumentException if cap is less than 1 or greater
+    * than ArrayQueue.MAX_CAPACITY */
+  public IntArrayStack(int cap) {
+    if (cap < 1 || cap > ArrayQueue.MAX_CAPACITY)
+      throw new IllegalArgumentException("capacity must be positive and at most 2^30");
+    minCapacity = cap;
+    S = new int[cap];
+  }
+  /** Returns the number of elements in the stack. */
+  public int size() { return n; }
+  /** Returns whether the stack is empty. */
+  public boolean isEmpty() { return n == 0; }
+  /** Returns the length of the array currently used. */
+  public int capacity() { return S.length; }
+  /** Inserts a value at the top of the stack.
+    * @throws CapacityExceededException if the stack already holds
+    * ArrayQueue.MAX_CAPACITY elements */
+  public void push(int x) {
+    if (n == S.length) {
+      if (n == ArrayQueue.MAX_CAPACITY)
+	throw new CapacityExceededException("Stack has reached its maximum capacity");
+      S = Arrays.copyOf(S, (int) Math.min(2L * n, ArrayQueue.MAX_CAPACITY));
+    }
+    S[n++] = x;
+  }
+  /** Returns the top value of the stack. */
+  public int top() throws EmptyStackException {
+    if (n == 0)
+      throw new EmptyStackException("Stack is empty.");
+    return S[n - 1];
+  }
+  /** Removes and returns the top value of the stack. */
+  public int pop() throws EmptyStackException {
+    if (n == 0)
+      throw new EmptyStackException("Stack is empty.");
+    int x = S[--n];
+    if (n <= S.length / 4 && S.length / 2 >= minCapacity)
+      S = Arrays.copyOf(S, S.length / 2);
+    return x;
+  }
+  /** Removes all the values and returns the array to its initial
+    * length. */
+  public void clear() {
+    S = new int[minCapacity];
+    n = 0;
+  }
+  /** Returns a string representation of the stack, with the top value
+    * at the end: [ ... , prev, top ]. */
+  public String toString() {
+    return Arrays.toString(Arrays.copyOf(S, n));
+  }
+}
@@ -0,0 +1,107 @@
+package net.datastructures;
+import java.util.Comparator;
+
+/**
+ * Realization of a mergeable priority queue by means of a leftist heap:
+ * a heap-ordered binary tree in which the null path length (the
+ * distance to the nearest missing child) of every left child is at
+ * least that of its right sibling.  Hence the rightmost path of a heap
+ * with n entries has at most log(n+1) nodes, and two heaps are melded
+ * by merging their rightmost paths in O(log n) time.  <tt>insert</tt>
+ * and <tt>removeMin</tt> are melds too, so they also take O(log n)
+ * time.
+ *
+ * @see PairingHeapPriorityQueue
+ */
+public class LeftistHeapPriorityQueue<K,V> implements PriorityQueue<K,V> {
+  protected Node<K,V> root;	// node with minimum key, null if empty
+  protected int size = 0;	// number of entries
+  protected Comparator<K> comp;	// comparator for the keys
+  /** Nested class for the nodes of the heap, which are also its entries. */
+  protected static class Node<K,V> implements Entry<K,V> {
+    protected K key;
+    protected V value;
+    protected Node<K,V> left, right;	// children
+    protected int npl = 1;	// null path length
+    Node(K k, V v) { key = k; value = v; }
+    public K getKey() { return key; }
+    public V getValue() { return value; }
+    public String toString() { return "(" + key  + "," + value + ")"; }
+  }
+  /** Creates an empty heap with the default comparator. */
+  public LeftistHeapPriorityQueue() { this(new DefaultComparator<K>()); }
+  /** Creates an empty heap with the given comparator. */
+  public LeftistHeapPriorityQueue(Comparator<K> c) { comp = c; }
+  /** Returns the number of entries in the heap. */
+  public int size() { return size; }
+  /** Returns whether the heap is empty. */
+  public boolean isEmpty() { return size == 0; }
+  /** Returns but does not remove an entry with minimum key. */
+  public Entry<K,V> min() throws EmptyPriorityQueueException {
+    if (isEmpty())
+      throw new EmptyPriorityQueueException("Priority queue is empty");
+    return root;
+  }
+  /** Inserts a key-value pair and returns the entry created. */
+  public Entry<K,V> insert(K k, V x) throws InvalidKeyException {
+    checkKey(k);
+    Node<K,V> v = new Node<K,V>(k, x);
+    root = merge(root, v);
+    size++;
+    return v;
+  }
+  /** Removes and returns an entry with minimum key. */
+  public Entry<K,V> removeMin() throws EmptyPriorityQueueException {
+    if (isEmpty())
+      throw new EmptyPriorityQueueException("Priority queue is empty");
+    Node<K,V> min = root;
+    root = merge(min.left, min.right);
+    min.left = min.right = null;
+    size--;
+    return min;
+  }
+  /**
+   * Moves all the entries of another heap, which must order keys the
+   * same way, into this heap in O(log n) time, leaving the other heap
+   * empty.
+   * @throws IllegalArgumentException if other is this heap
+   */
+  public void meld(LeftistHeapPriorityQueue<K,V> other)
+    throws IllegalArgumentException {
+    if (other == this)
+      throw new IllegalArgumentException("Cannot meld a heap with itself");
+    root = merge(root, other.root);
+    size += other.size;
+    other.root = null;
+    other.size = 0;
+  }
+  // Auxiliary methods
+  /** Determines whether a given key is valid. */
+  protected void checkKey(K key) throws InvalidKeyException {
+    try {
+      comp.compare(key,key);
+    }
+    catch(Exception e) {
+      throw new InvalidKeyException("Invalid key");
+    }
+  }
+  /** Merges two leftist heaps (either may be null) along their rightmost
+    * paths and returns the root of the result. */
+  protected Node<K,V> merge(Node<K,V> a, Node<K,V> b) {
+    if (a == null) return b;
+    if (b == null) return a;
+    if (comp.compare(b.key, a.key) < 0) {
+      Node<K,V> t = a; a = b; b = t;
+    }
+    a.right = merge(a.right, b);
+    if (a.left == null || a.left.npl < a.right.npl) {	// restore leftist
+      Node<K,V> t = a.left; a.left = a.right; a.right = t;	// property
+    }
+    a.npl = (a.right == null) ? 1 : a.right.npl + 1;
+    return a;
+  }
+  /** Text visualization for debugging purposes */
+  public String toString() {
+    return "LeftistHeap(size=" + size + ", min=" + root + ")";
+  }
+}
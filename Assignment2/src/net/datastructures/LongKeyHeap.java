@@ -0,0 +1,99 @@
+package net.datastructures;
+
+/**
+ * Priority queue with <tt>long</tt> keys, realized by a d-ary heap kept
+ * in two parallel arrays, one of keys and one of values.  Keys are
+ * neither boxed nor compared through a comparator, and no entry object
+ * is created per insertion.  It offers the methods of the
+ * {@link PriorityQueue} interface with primitive keys; the minimum is
+ * read through {@link #minKey()} and {@link #minValue()}.
+ *
+ * @see DaryHeapPriorityQueue
+ * @see IntKeyHeap
+ */
+public class LongKeyHeap<V> {
+  protected long[] keys;		// heap keys in level order
+  protected V[] values;		// values, parallel to the keys
+  protected int n = 0;		// number of entries
+  protected final int d;	// number of children per node
+  /** Creates an empty 4-ary heap. */
+  public LongKeyHeap() { this(DaryHeapPriorityQueue.DEFAULT_ARITY); }
+  /** Creates an empty heap with d children per node.
+    * @throws IllegalArgumentException if d is less than 2 */
+  public LongKeyHeap(int d) {
+    if (d < 2)
+      throw new IllegalArgumentException("arity must be at least 2");
+    this.d = d;
+    keys = new long[DaryHeapPriorityQueue.CAPACITY];
+    values = (V[]) new Object[DaryHeapPriorityQueue.CAPACITY];
+  }
+  /** Returns the number of entries in the heap. */
+  public int size() { return n; }
+  /** Returns whether the heap is empty. */
+  public boolean isEmpty() { return n == 0; }
+  /** Returns the minimum key. */
+  public long minKey() throws EmptyPriorityQueueException {
+    checkEmpty();
+    return keys[0];
+  }
+  /** Returns the value of an entry with minimum key. */
+  public V minValue() throws EmptyPriorityQueueException {
+    checkEmpty();
+    return values[0];
+  }
+  /** Inserts a key-value pair.
+    * @throws CapacityExceededException if the heap already holds
+    * ArrayQueue.MAX_CAPACITY entries */
+  public void insert(long k, V x) {
+    if (n == keys.length) {	// grow the arrays
+      if (n == ArrayQueue.MAX_CAPACITY)
+	throw new CapacityExceededException("Heap has reached its maximum capacity");
+      long[] ka = new long[2 * n];
+      V[] va = (V[]) new Object[2 * n];
+      System.arraycopy(keys, 0, ka, 0, n);
+      System.arraycopy(values, 0, va, 0, n);
+      keys = ka;
+      values = va;
+    }
+    int i = n++;
+    while (i > 0) {		// up-heap bubbling into the hole at i
+      int p = (i - 1) / d;
+      if (keys[p] <= k) break;
+      keys[i] = keys[p];
+      values[i] = values[p];
+      i = p;
+    }
+    keys[i] = k;
+    values[i] = x;
+  }
+  /** Removes an entry with minimum key and returns its value. */
+  public V removeMin() throws EmptyPriorityQueueException {
+    checkEmpty();
+    V min = values[0];
+    long k = keys[--n];
+    V x = values[n];
+    values[n] = null;	// let the removed value be garbage collected
+    if (n == 0) return min;
+    int i = 0;
+    while (true) {		// down-heap bubbling into the hole at i
+      int first = d * i + 1;
+      if (first >= n) break;
+      int last = Math.min(first + d, n);
+      int s = first;
+      for (int c = first + 1; c < last; c++)
+	if (keys[c] < keys[s]) s = c;
+      if (keys[s] >= k) break;
+      keys[i] = keys[s];
+      values[i] = values[s];
+      i = s;
+    }
+    keys[i] = k;
+    values[i] = x;
+    return min;
+  }
+  /** Throws an exception if the heap is empty. */
+  protected void checkEmpty() throws EmptyPriorityQueueException {
+    if (n == 0)
+      throw new EmptyPriorityQueueException("Priority queue is empty");
+  }
+}
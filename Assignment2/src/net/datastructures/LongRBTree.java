@@ -0,0 +1,255 @@
+package net.datastructures;
+
+/**
+ * Realization of a dictionary with <tt>long</tt> keys by means of a
+ * red-black tree.  Keys are stored in primitive fields and compared
+ * directly, so lookups neither box keys nor call a comparator.  Each
+ * node is itself the entry and missing children are <tt>null</tt>
+ * rather than external nodes; nodes keep a parent reference, so an
+ * entry is removed without searching for it.  It offers the methods
+ * of the {@link Dictionary} interface with primitive keys, plus range
+ * queries.
+ *
+ * @see IntAVLTree
+ */
+public class LongRBTree<V> {
+  protected Node<V> root;	// root of the tree, null if empty
+  protected int numEntries = 0;	// number of entries
+  /** Nested class for the nodes of the tree, which are also its entries. */
+  protected static class Node<V> implements Entry<Long,V> {
+    protected long key;
+    protected V value;
+    protected Node<V> left, right, parent;
+    protected boolean isRed = true;	// new nodes are red
+    Node(long k, V v, Node<V> p) { key = k; value = v; parent = p; }
+    /** Returns the key without boxing it. */
+    public long longKey() { return key; }
+    public Long getKey() { return key; }
+    public V getValue() { return value; }
+    public String toString() { return "(" + key + "," + value + ")"; }
+  }
+  /** Returns the number of entries in the tree. */
+  public int size() { return numEntries; }
+  /** Returns whether the tree is empty. */
+  public boolean isEmpty() { return numEntries == 0; }
+  /** Returns an entry containing the given key.  Returns null if no
+    * such entry exists. */
+  public Entry<Long,V> find(long key) {
+    Node<V> v = root;
+    while (v != null) {
+      if (key < v.key) v = v.left;
+      else if (key > v.key) v = v.right;
+      else return v;
+    }
+    return null;
+  }
+  /** Returns an iterable collection of all the entries containing the
+    * given key. */
+  public Iterable<Entry<Long,V>> findAll(long key) {
+    return range(key, key);
+  }
+  /** Returns an iterable collection of all the entries whose keys are
+    * between lo and hi (inclusive), in key order. */
+  public Iterable<Entry<Long,V>> range(long lo, long hi) {
+    PositionList<Entry<Long,V>> L = new NodePositionList<Entry<Long,V>>();
+    addRange(L, root, lo, hi);
+    return L;
+  }
+  /** Returns an iterable collection of all the entries, in key order. */
+  public Iterable<Entry<Long,V>> entries() {
+    return range(Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+  /** Inserts an entry into the tree and returns the newly created entry. */
+  public Entry<Long,V> insert(long k, V x) {
+    Node<V> p = null;
+    Node<V> v = root;
+    while (v != null) {	// equal keys go left
+      p = v;
+      v = (k <= v.key) ? v.left : v.right;
+    }
+    Node<V> z = new Node<V>(k, x, p);
+    if (p == null) root = z;
+    else if (k <= p.key) p.left = z;
+    else p.right = z;
+    remedyDoubleRed(z);
+    numEntries++;
+    return z;
+  }
+  /** Removes and returns a given entry, or returns null if the entry
+    * is not in the tree. */
+  public Entry<Long,V> remove(Entry<Long,V> ent) throws InvalidEntryException {
+    if (ent == null || !(ent instanceof Node))
+      throw new InvalidEntryException("invalid entry");
+    Node<V> z = (Node<V>) ent;
+    Node<V> top = z;
+    while (top.parent != null) top = top.parent;
+    if (top != root) return null;	// not in this tree
+    removeNode(z);
+    z.left = z.right = z.parent = null;
+    numEntries--;
+    return ent;
+  }
+  // Auxiliary methods
+  /** Returns whether a node is red; null children are black. */
+  protected static <V> boolean isRed(Node<V> v) {
+    return v != null && v.isRed;
+  }
+  /** Remedies a double red violation at a newly inserted red node. */
+  protected void remedyDoubleRed(Node<V> z) {
+    while (isRed(z.parent)) {
+      Node<V> p = z.parent, g = p.parent;	// g is black, hence not null
+      Node<V> u = (p == g.left) ? g.right : g.left;
+      if (isRed(u)) {	// recoloring
+	p.isRed = false;
+	u.isRed = false;
+	g.isRed = true;
+	z = g;
+      }
+      else {		// trinode restructuring
+	if (p == g.left) {
+	  if (z == p.right) { rotateLeft(p); p = z; }
+	  rotateRight(g);
+	}
+	else {
+	  if (z == p.left) { rotateRight(p); p = z; }
+	  rotateLeft(g);
+	}
+	p.isRed = false;
+	g.isRed = true;
+	break;
+      }
+    }
+    root.isRed = false;
+  }
+  /** Unlinks node z from the tree, moving its successor node (not just
+    * the successor's entry) into its place if z has two children. */
+  protected void removeNode(Node<V> z) {
+    Node<V> x, xParent;	// node that takes the removed black's place
+    boolean removedRed = z.isRed;
+    if (z.left == null) {
+      x = z.right;
+      xParent = z.parent;
+      replaceChild(z, x);
+    }
+    else if (z.right == null) {
+      x = z.left;
+      xParent = z.parent;
+      replaceChild(z, x);
+    }
+    else {
+      Node<V> y = z.right;
+      while (y.left != null) y = y.left;
+      removedRed = y.isRed;
+      x = y.right;
+      if (y.parent == z)
+	xParent = y;
+      else {
+	xParent = y.parent;
+	replaceChild(y, x);
+	y.right = z.right;
+	y.right.parent = y;
+      }
+      replaceChild(z, y);
+      y.left = z.left;
+      y.left.parent = y;
+      y.isRed = z.isRed;
+    }
+    if (!removedRed)
+      remedyDoubleBlack(x, xParent);
+  }
+  /** Remedies a double black at x (possibly null), a child of p. */
+  protected void remedyDoubleBlack(Node<V> x, Node<V> p) {
+    while (x != root && !isRed(x)) {
+      if (x == p.left) {
+	Node<V> y = p.right;	// the sibling of x, not null
+	if (y.isRed) {		// adjustment
+	  y.isRed = false;
+	  p.isRed = true;
+	  rotateLeft(p);
+	  y = p.right;
+	}
+	if (!isRed(y.left) && !isRed(y.right)) {	// recoloring
+	  y.isRed = true;
+	  x = p;
+	  p = x.parent;
+	}
+	else {			// trinode restructuring
+	  if (!isRed(y.right)) {
+	    y.left.isRed = false;
+	    y.isRed = true;
+	    rotateRight(y);
+	    y = p.right;
+	  }
+	  y.isRed = p.isRed;
+	  p.isRed = false;
+	  y.right.isRed = false;
+	  rotateLeft(p);
+	  x = root;
+	}
+      }
+      else {
+	Node<V> y = p.left;
+	if (y.isRed) {
+	  y.isRed = false;
+	  p.isRed = true;
+	  rotateRight(p);
+	  y = p.left;
+	}
+	if (!isRed(y.left) && !isRed(y.right)) {
+	  y.isRed = true;
+	  x = p;
+	  p = x.parent;
+	}
+	else {
+	  if (!isRed(y.left)) {
+	    y.right.isRed = false;
+	    y.isRed = true;
+	    rotateLeft(y);
+	    y = p.left;
+	  }
+	  y.isRed = p.isRed;
+	  p.isRed = false;
+	  y.left.isRed = false;
+	  rotateRight(p);
+	  x = root;
+	}
+      }
+    }
+    if (x != null) x.isRed = false;
+  }
+  /** Puts node c (possibly null) in the place of node v. */
+  protected void replaceChild(Node<V> v, Node<V> c) {
+    Node<V> p = v.parent;
+    if (p == null) root = c;
+    else if (v == p.left) p.left = c;
+    else p.right = c;
+    if (c != null) c.parent = p;
+  }
+  /** Rotates the right child of v above v. */
+  protected void rotateLeft(Node<V> v) {
+    Node<V> u = v.right;
+    v.right = u.left;
+    if (u.left != null) u.left.parent = v;
+    replaceChild(v, u);
+    u.left = v;
+    v.parent = u;
+  }
+  /** Rotates the left child of v above v. */
+  protected void rotateRight(Node<V> v) {
+    Node<V> u = v.left;
+    v.left = u.right;
+    if (u.right != null) u.right.parent = v;
+    replaceChild(v, u);
+    u.right = v;
+    v.parent = u;
+  }
+  /** Adds to L, in inorder, the entries of the subtree rooted at v
+    * whose keys are between lo and hi. */
+  protected void addRange(PositionList<Entry<Long,V>> L, Node<V> v,
+			  long lo, long hi) {
+    if (v == null) return;
+    if (lo <= v.key) addRange(L, v.left, lo, hi);
+    if (lo <= v.key && v.key <= hi) L.addLast(v);
+    if (v.key <= hi) addRange(L, v.right, lo, hi);
+  }
+}
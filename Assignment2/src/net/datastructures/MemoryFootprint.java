@@ -0,0 +1,91 @@
+package net.datastructures;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * Estimates the memory used by the structure of a search tree, that is
+ * by its nodes and entry objects but not by the keys and values they
+ * refer to.  Object sizes are computed from the instance fields of the
+ * classes actually in use, assuming the common layout of a 64-bit JVM
+ * with compressed references: a 12-byte object header, 4-byte
+ * references, and objects padded to a multiple of 8 bytes.
+ */
+public class MemoryFootprint {
+  /** Size of an object header, in bytes. */
+  public static final int HEADER = 12;
+  /** Size of a reference, in bytes. */
+  public static final int REFERENCE = 4;
+  /** Alignment of objects, in bytes. */
+  public static final int ALIGNMENT = 8;
+
+  /** Returns the estimated size in bytes of one instance of a class. */
+  public static long shallowSize(Class<?> c) {
+    long bytes = HEADER;
+    for (Class<?> k = c; k != null; k = k.getSuperclass())
+      for (Field f : k.getDeclaredFields())
+	if (!Modifier.isStatic(f.getModifiers()))
+	  bytes += fieldSize(f.getType());
+    return (bytes + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+  }
+  /** Returns the size in bytes of a field of the given type. */
+  protected static int fieldSize(Class<?> t) {
+    if (t == long.class || t == double.class) return 8;
+    if (t == int.class || t == float.class) return 4;
+    if (t == short.class || t == char.class) return 2;
+    if (t == byte.class || t == boolean.class) return 1;
+    return REFERENCE;
+  }
+  /** Returns the estimated number of bytes used by the nodes and
+    * entries of a binary search tree, including its external nodes. */
+  public static <K,V> long bytes(BinarySearchTree<K,V> t) {
+    if (t.root == null) return 0;
+    long nodes = t.size;		// internal and external nodes
+    long entries = t.numEntries;
+    long entryBytes = (entries == 0) ? 0
+      : shallowSize(t.root.element().getClass());
+    return nodes * shallowSize(t.root.getClass()) + entries * entryBytes;
+  }
+  /** Returns the estimated number of bytes used by the nodes of a
+    * compact AVL tree. */
+  public static <K,V> long bytes(CompactAVLTree<K,V> t) {
+    return (long) t.numEntries * shallowSize(CompactAVLTree.Node.class);
+  }
+  /** Returns the estimated number of bytes used by the nodes of a
+    * compact red-black tree. */
+  public static <K,V> long bytes(CompactRBTree<K,V> t) {
+    return (long) t.numEntries * shallowSize(CompactRBTree.Node.class);
+  }
+  /** Returns the estimated number of bytes per entry of a binary
+    * search tree. */
+  public static <K,V> double bytesPerEntry(BinarySearchTree<K,V> t) {
+    return (t.numEntries == 0) ? 0 : (double) bytes(t) / t.numEntries;
+  }
+  /** Returns the estimated number of bytes per entry of a compact AVL
+    * tree. */
+  public static <K,V> double bytesPerEntry(CompactAVLTree<K,V> t) {
+    return (t.numEntries == 0) ? 0 : (double) bytes(t) / t.numEntries;
+  }
+  /** Returns the estimated number of bytes per entry of a compact
+    * red-black tree. */
+  public static <K,V> double bytesPerEntry(CompactRBTree<K,V> t) {
+    return (t.numEntries == 0) ? 0 : (double) bytes(t) / t.numEntries;
+  }
+  /** Prints the estimated bytes per entry of the tree implementations. */
+  public static void main(String[] args) {
+    int n = 100000;
+    AVLTree<Integer,Integer> avl = new AVLTree<Integer,Integer>();
+    RBTree<Integer,Integer> rb = new RBTree<Integer,Integer>();
+    CompactAVLTree<Integer,Integer> compact = new CompactAVLTree<Integer,Integer>();
+    CompactRBTree<Integer,Integer> compactRB = new CompactRBTree<Integer,Integer>();
+    for (int i = 0; i < n; i++) {
+      avl.insert(i, i);
+      rb.insert(i, i);
+      compact.insert(i, i);
+      compactRB.insert(i, i);
+    }
+    System.out.println("AVLTree:        " + bytesPerEntry(avl) + " bytes/entry");
+    System.out.println("RBTree:         " + bytesPerEntry(rb) + " bytes/entry");
+    System.out.println("CompactAVLTree: " + bytesPerEntry(compact) + " bytes/entry");
+    System.out.println("CompactRBTree:  " + bytesPerEntry(compactRB) + " bytes/entry");
+  }
+}
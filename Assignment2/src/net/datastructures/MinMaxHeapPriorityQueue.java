@@ -0,0 +1,194 @@
+package net.datastructures;
+import java.util.Comparator;
+
+/**
+ * Realization of a double-ended priority queue by means of a min-max
+ * heap, stored in a complete binary tree like {@link HeapPriorityQueue}.
+ * The nodes at even depth (min levels) have keys no larger than those
+ * of their descendants, and the nodes at odd depth (max levels) have
+ * keys no smaller than those of their descendants.  So the minimum is
+ * at the root and the maximum at one of its children.  <tt>min</tt> and
+ * <tt>max</tt> take O(1) time; <tt>insert</tt>, <tt>removeMin</tt> and
+ * <tt>removeMax</tt> take O(log n) time.
+ */
+public class MinMaxHeapPriorityQueue<K,V> implements DoubleEndedPriorityQueue<K,V> {
+  protected CompleteBinaryTree<Entry<K,V>> heap;	// underlying heap
+  protected Comparator<K> comp;	// comparator for the keys
+  /** Inner class for heap entries. */
+  protected static class MyEntry<K,V> implements Entry<K,V> {
+    protected K key;
+    protected V value;
+    public MyEntry(K k, V v) { key = k; value = v; }
+    public K getKey() { return key; }
+    public V getValue() { return value; }
+    public String toString() { return "(" + key  + "," + value + ")"; }
+  }
+  /** Creates an empty heap with the default comparator. */
+  public MinMaxHeapPriorityQueue() { this(new DefaultComparator<K>()); }
+  /** Creates an empty heap with the given comparator. */
+  public MinMaxHeapPriorityQueue(Comparator<K> c) {
+    this(new ArrayListCompleteBinaryTree<Entry<K,V>>(), c);
+  }
+  /** Creates an empty heap with the given comparator, stored in the
+    * given complete binary tree.
+    * @throws IllegalArgumentException if the tree is not empty */
+  public MinMaxHeapPriorityQueue(CompleteBinaryTree<Entry<K,V>> tree, Comparator<K> c) {
+    if (!tree.isEmpty())
+      throw new IllegalArgumentException("Tree is not empty");
+    heap = tree;
+    comp = c;
+  }
+  /** Sets the comparator used for comparing items in the heap.
+   * @throws IllegalStateException if priority queue is not empty */
+  public void setComparator(Comparator<K> c) throws IllegalStateException {
+    if (!isEmpty())
+      throw new IllegalStateException("Priority queue is not empty");
+    comp = c;
+  }
+  /** Returns the size of the heap. */
+  public int size() { return heap.size(); }
+  /** Returns whether the heap is empty. */
+  public boolean isEmpty() { return heap.size() == 0; }
+  /** Returns but does not remove an entry with minimum key. */
+  public Entry<K,V> min() throws EmptyPriorityQueueException {
+    if (isEmpty())
+      throw new EmptyPriorityQueueException("Priority queue is empty");
+    return heap.root().element();
+  }
+  /** Returns but does not remove an entry with maximum key. */
+  public Entry<K,V> max() throws EmptyPriorityQueueException {
+    if (isEmpty())
+      throw new EmptyPriorityQueueException("Priority queue is empty");
+    return maxPosition().element();
+  }
+  /** Inserts a key-value pair and returns the entry created. */
+  public Entry<K,V> insert(K k, V x) throws InvalidKeyException {
+    checkKey(k);
+    Entry<K,V> entry = new MyEntry<K,V>(k,x);
+    Position<Entry<K,V>> v = heap.add(entry);
+    boolean min = isMinLevel(size());	// the last node has index size()
+    if (!heap.isRoot(v)) {
+      Position<Entry<K,V>> u = heap.parent(v);
+      if (beats(v, u, !min)) {	// out of order with its parent's level
+	swap(u, v);
+	v = u;
+	min = !min;
+      }
+    }
+    upHeap(v, min);
+    return entry;
+  }
+  /** Removes and returns an entry with minimum key. */
+  public Entry<K,V> removeMin() throws EmptyPriorityQueueException {
+    if (isEmpty())
+      throw new EmptyPriorityQueueException("Priority queue is empty");
+    return removeAt(heap.root(), true);
+  }
+  /** Removes and returns an entry with maximum key. */
+  public Entry<K,V> removeMax() throws EmptyPriorityQueueException {
+    if (isEmpty())
+      throw new EmptyPriorityQueueException("Priority queue is empty");
+    return removeAt(maxPosition(), heap.size() == 1);
+  }
+  // Auxiliary methods
+  /** Determines whether a given key is valid. */
+  protected void checkKey(K key) throws InvalidKeyException {
+    try {
+      comp.compare(key,key);
+    }
+    catch(Exception e) {
+      throw new InvalidKeyException("Invalid key");
+    }
+  }
+  /** Returns whether the node with level number i is on a min level. */
+  protected static boolean isMinLevel(int i) {
+    return ((31 - Integer.numberOfLeadingZeros(i)) & 1) == 0;
+  }
+  /** Returns the node holding a maximum key: the root or one of its
+    * children. */
+  protected Position<Entry<K,V>> maxPosition() {
+    Position<Entry<K,V>> r = heap.root();
+    if (!heap.hasLeft(r))
+      return r;
+    if (!heap.hasRight(r) || beats(heap.left(r), heap.right(r), false))
+      return heap.left(r);
+    return heap.right(r);
+  }
+  /** Returns whether the key at u comes before the key at v: is smaller
+    * if min is true, and larger otherwise. */
+  protected boolean beats(Position<Entry<K,V>> u, Position<Entry<K,V>> v,
+			  boolean min) {
+    int c = comp.compare(u.element().getKey(), v.element().getKey());
+    return min ? c < 0 : c > 0;
+  }
+  /** Removes the entry at v, on a min level if min is true, by moving
+    * the last entry there, and returns it. */
+  protected Entry<K,V> removeAt(Position<Entry<K,V>> v, boolean min) {
+    Entry<K,V> e = v.element();
+    Entry<K,V> last = heap.remove();
+    if (last != e) {	// v is not the last node
+      heap.replace(v, last);
+      downHeap(v, min);
+    }
+    return e;
+  }
+  /** Performs up-heap bubbling of v among the nodes on its levels: min
+    * levels if min is true, and max levels otherwise. */
+  protected void upHeap(Position<Entry<K,V>> v, boolean min) {
+    while (!heap.isRoot(v)) {
+      Position<Entry<K,V>> u = heap.parent(v);
+      if (heap.isRoot(u)) break;
+      u = heap.parent(u);	// the grandparent of v
+      if (!beats(v, u, min)) break;
+      swap(u, v);
+      v = u;
+    }
+  }
+  /** Performs down-heap bubbling of r, which is on a min level if min is
+    * true, and on a max level otherwise. */
+  protected void downHeap(Position<Entry<K,V>> r, boolean min) {
+    while (heap.isInternal(r)) {
+      Position<Entry<K,V>> m = bestChild(r, min);	// best child or grandchild
+      boolean grandchild = false;
+      if (heap.hasLeft(heap.left(r))) {
+	Position<Entry<K,V>> g = bestChild(heap.left(r), min);
+	if (beats(g, m, min)) {
+	  m = g;
+	  grandchild = true;
+	}
+	if (heap.hasRight(r) && heap.hasLeft(heap.right(r))) {
+	  g = bestChild(heap.right(r), min);
+	  if (beats(g, m, min)) {
+	    m = g;
+	    grandchild = true;
+	  }
+	}
+      }
+      if (!beats(m, r, min)) break;
+      swap(r, m);
+      if (!grandchild) break;
+      Position<Entry<K,V>> p = heap.parent(m);
+      if (beats(p, m, min))	// the entry moved down is out of order
+	swap(p, m);		// with the level in between
+      r = m;
+    }
+  }
+  /** Returns the child of internal node v whose key comes first: the
+    * smaller if min is true, and the larger otherwise. */
+  protected Position<Entry<K,V>> bestChild(Position<Entry<K,V>> v, boolean min) {
+    Position<Entry<K,V>> c = heap.left(v);
+    if (heap.hasRight(v) && beats(heap.right(v), c, min))
+      c = heap.right(v);
+    return c;
+  }
+  /** Swaps the entries of the two given positions. */
+  protected void swap(Position<Entry<K,V>> x, Position<Entry<K,V>> y) {
+    Entry<K,V> temp = x.element();
+    heap.replace(x, y.element());
+    heap.replace(y, temp);
+  }
+  /** Text visualization for debugging purposes */
+  public String toString() {
+    return heap.toString();
+  }
+}
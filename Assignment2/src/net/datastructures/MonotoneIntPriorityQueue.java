@@ -0,0 +1,163 @@
+package net.datastructures;
+
+/**
+ * Realization of an adaptable priority queue with <tt>int</tt> keys by
+ * means of a radix heap, for monotone uses such as Dijkstra's
+ * algorithm or event simulation: keys may never be smaller than the
+ * key of the entry last returned by <tt>min</tt> or <tt>removeMin</tt>.
+ *
+ * <p>Entries are kept in 33 buckets of doubly linked nodes.  Bucket 0
+ * holds the entries whose key equals the last minimum, and bucket i the
+ * entries whose key first differs from it in bit i-1.  When bucket 0
+ * runs empty, the first nonempty bucket is scanned for its minimum,
+ * which becomes the new last minimum, and its entries are moved to
+ * lower buckets.  An entry only ever moves to lower buckets, so
+ * <tt>insert</tt>, <tt>remove</tt> and <tt>replaceKey</tt> take O(1)
+ * time and <tt>removeMin</tt> O(log C) amortized time, where C is the
+ * range of the keys.
+ *
+ * @see HeapAdaptablePriorityQueue
+ */
+public class MonotoneIntPriorityQueue<V>
+  implements AdaptablePriorityQueue<Integer,V> {
+  /** Number of buckets: one per bit of a key, plus one. */
+  protected static final int BUCKETS = 33;
+  protected Node<V>[] buckets = (Node<V>[]) new Node[BUCKETS];	// list heads
+  protected int last = 0;	// unsigned form of the last minimum key
+  protected int size = 0;	// number of entries
+  /** Nested class for the nodes of the buckets, which are also the
+    * entries of the priority queue. */
+  protected static class Node<V> implements Entry<Integer,V> {
+    protected int key;
+    protected V value;
+    protected Node<V> prev, next;	// neighbors in the bucket
+    protected int bucket = -1;		// index of the bucket, -1 if removed
+    Node(int k, V v) { key = k; value = v; }
+    public Integer getKey() { return key; }
+    public V getValue() { return value; }
+    public String toString() { return "(" + key  + "," + value + ")"; }
+  }
+  /** Returns the number of entries in the priority queue. */
+  public int size() { return size; }
+  /** Returns whether the priority queue is empty. */
+  public boolean isEmpty() { return size == 0; }
+  /** Returns but does not remove an entry with minimum key. */
+  public Entry<Integer,V> min() throws EmptyPriorityQueueException {
+    if (isEmpty())
+      throw new EmptyPriorityQueueException("Priority queue is empty");
+    settle();
+    return buckets[0];
+  }
+  /** Inserts a key-value pair and returns the entry created.
+    * @throws InvalidKeyException if the key is null or smaller than the
+    * last minimum */
+  public Entry<Integer,V> insert(Integer k, V x) throws InvalidKeyException {
+    Node<V> v = new Node<V>(checkKey(k), x);
+    add(v);
+    size++;
+    return v;
+  }
+  /** Removes and returns an entry with minimum key. */
+  public Entry<Integer,V> removeMin() throws EmptyPriorityQueueException {
+    if (isEmpty())
+      throw new EmptyPriorityQueueException("Priority queue is empty");
+    settle();
+    Node<V> min = buckets[0];
+    unlink(min);
+    size--;
+    return min;
+  }
+  /** Removes and returns the given entry. */
+  public Entry<Integer,V> remove(Entry<Integer,V> e) throws InvalidEntryException {
+    Node<V> v = checkEntry(e);
+    unlink(v);
+    size--;
+    return v;
+  }
+  /** Replaces the key of the given entry and returns the old key.
+    * @throws InvalidKeyException if the key is null or smaller than the
+    * last minimum */
+  public Integer replaceKey(Entry<Integer,V> e, Integer k)
+    throws InvalidEntryException, InvalidKeyException {
+    Node<V> v = checkEntry(e);
+    int key = checkKey(k);
+    int oldKey = v.key;
+    unlink(v);
+    v.key = key;
+    add(v);
+    return oldKey;
+  }
+  /** Replaces the value of the given entry and returns the old value. */
+  public V replaceValue(Entry<Integer,V> e, V x) throws InvalidEntryException {
+    Node<V> v = checkEntry(e);
+    V oldValue = v.value;
+    v.value = x;
+    return oldValue;
+  }
+  // Auxiliary methods
+  /** Maps a key to an unsigned form, so that signed keys are ordered
+    * as their bit patterns. */
+  protected static int unsigned(int key) { return key ^ Integer.MIN_VALUE; }
+  /** Checks that a key is valid and not below the last minimum, and
+    * returns it. */
+  protected int checkKey(Integer key) throws InvalidKeyException {
+    if (key == null)
+      throw new InvalidKeyException("null key");
+    if (Integer.compareUnsigned(unsigned(key), last) < 0)
+      throw new InvalidKeyException("Key is smaller than the last minimum");
+    return key;
+  }
+  /** Checks whether a given entry is in a priority queue. */
+  protected Node<V> checkEntry(Entry<Integer,V> e) throws InvalidEntryException {
+    if (e == null || !(e instanceof Node))
+      throw new InvalidEntryException("Invalid entry");
+    Node<V> v = (Node<V>) e;
+    if (v.bucket < 0)
+      throw new InvalidEntryException("Entry not in the priority queue");
+    return v;
+  }
+  /** Returns the bucket of a key relative to the last minimum. */
+  protected int bucketOf(int key) {
+    return 32 - Integer.numberOfLeadingZeros(unsigned(key) ^ last);
+  }
+  /** Adds a node at the front of the bucket of its key. */
+  protected void add(Node<V> v) {
+    int b = bucketOf(v.key);
+    v.bucket = b;
+    v.prev = null;
+    v.next = buckets[b];
+    if (v.next != null) v.next.prev = v;
+    buckets[b] = v;
+  }
+  /** Removes a node from its bucket. */
+  protected void unlink(Node<V> v) {
+    if (v.prev == null) buckets[v.bucket] = v.next;
+    else v.prev.next = v.next;
+    if (v.next != null) v.next.prev = v.prev;
+    v.prev = v.next = null;
+    v.bucket = -1;
+  }
+  /** Makes bucket 0 nonempty, if the queue is not, by redistributing
+    * the first nonempty bucket around its minimum. */
+  protected void settle() {
+    if (buckets[0] != null) return;
+    int b = 1;
+    while (buckets[b] == null) b++;
+    Node<V> min = buckets[b];
+    for (Node<V> v = min.next; v != null; v = v.next)
+      if (v.key < min.key)
+	min = v;
+    last = unsigned(min.key);
+    Node<V> v = buckets[b];
+    buckets[b] = null;
+    while (v != null) {		// every entry moves to a lower bucket
+      Node<V> next = v.next;
+      add(v);
+      v = next;
+    }
+  }
+  /** Text visualization for debugging purposes */
+  public String toString() {
+    return "MonotoneIntPriorityQueue(size=" + size + ")";
+  }
+}
@@ -0,0 +1,165 @@
+package net.datastructures;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, lock-free queue for any number of producer and consumer
+ * threads, after Dmitry Vyukov's bounded MPMC queue.  The elements are
+ * kept in a ring buffer whose length is a power of two, and every slot
+ * has a sequence number telling which lap of the buffer it is ready
+ * for.  A producer claims the tail index with a compare-and-set once
+ * the sequence of the slot shows it empty, writes the element, and
+ * publishes it by advancing the sequence; consumers claim the head in
+ * the same way.  Threads contend only on the two indices, which are
+ * padded onto separate cache lines, and never wait for one another
+ * unless the queue is full or empty.
+ *
+ * <p><tt>size</tt>, <tt>isEmpty</tt> and <tt>front</tt> are only
+ * snapshots while other threads use the queue.  Null elements are not
+ * allowed, since <tt>poll</tt> returns null when the queue is empty.
+ *
+ * @see SpscArrayQueue
+ */
+public class MpmcArrayQueue<E> implements Queue<E> {
+  protected final E[] buffer;	// ring buffer of elements
+  protected final AtomicLongArray sequence;	// lap each slot is ready for
+  protected final int mask;	// buffer length minus one
+  protected final SpscArrayQueue.PaddedAtomicLong head =
+    new SpscArrayQueue.PaddedAtomicLong();	// next to poll
+  protected final SpscArrayQueue.PaddedAtomicLong tail =
+    new SpscArrayQueue.PaddedAtomicLong();	// next to offer
+  /** Creates an empty queue with room for at least cap elements.
+    * @throws IllegalArgumentException if cap is less than 1 */
+  public MpmcArrayQueue(int cap) {
+    int length = ArrayQueue.ceilPowerOfTwo(Math.max(cap, 2));
+    buffer = (E[]) new Object[length];
+    sequence = new AtomicLongArray(length);
+    for (int i = 0; i < length; i++)
+      sequence.set(i, i);	// slot i is ready for the offer at index i
+    mask = length - 1;
+  }
+  /** Returns the number of elements the queue can hold. */
+  public int capacity() { return buffer.length; }
+  /** Returns the number of elements in the queue. */
+  public int size() {
+    long h = head.get(), t = tail.get();
+    return (int) Math.max(0, Math.min(t - h, buffer.length));
+  }
+  /** Returns whether the queue is empty. */
+  public boolean isEmpty() { return head.get() >= tail.get(); }
+  /** Inserts an element at the rear of the queue if there is room, and
+    * returns whether it did. */
+  public boolean offer(E element) {
+    if (element == null)
+      throw new IllegalArgumentException("Null element");
+    long t;
+    int i;
+    while (true) {
+      t = tail.get();
+      i = (int) t & mask;
+      long d = sequence.get(i) - t;
+      if (d == 0) {		// slot empty: claim it
+	if (tail.compareAndSet(t, t + 1)) break;
+      }
+      else if (d < 0)		// slot still full from the last lap
+	return false;
+      // otherwise another producer claimed t: retry
+    }
+    buffer[i] = element;
+    sequence.lazySet(i, t + 1);	// publish the element
+    return true;
+  }
+  /** Inserts an element at the rear of the queue.
+    * @throws FullQueueException if the queue is full */
+  public void enqueue(E element) throws FullQueueException {
+    if (!offer(element))
+      throw new FullQueueException("Queue is full.");
+  }
+  /** Removes and returns the element at the front of the queue, or
+    * returns null if the queue is empty. */
+  public E poll() {
+    long h = claim();
+    return (h < 0) ? null : release(h);
+  }
+  /** Claims the front slot for the calling consumer and returns its
+    * index, or -1 if the queue is empty. */
+  protected long claim() {
+    while (true) {
+      long h = head.get();
+      long d = sequence.get((int) h & mask) - (h + 1);
+      if (d == 0) {		// slot full: claim it
+	if (head.compareAndSet(h, h + 1)) return h;
+      }
+      else if (d < 0)		// slot not yet published
+	return -1;
+      // otherwise another consumer claimed h: retry
+    }
+  }
+  /** Returns the element at the claimed index h and makes its slot
+    * ready for the next lap. */
+  protected E release(long h) {
+    int i = (int) h & mask;
+    E element = buffer[i];
+    buffer[i] = null;
+    sequence.lazySet(i, h + buffer.length);	// ready for the next lap
+    return element;
+  }
+  /** Removes and returns the element at the front of the queue. */
+  public E dequeue() throws EmptyQueueException {
+    E element = poll();
+    if (element == null)
+      throw new EmptyQueueException("Queue is empty.");
+    return element;
+  }
+  /** Returns the element at the front of the queue. */
+  public E front() throws EmptyQueueException {
+    long h = head.get();
+    int i = (int) h & mask;
+    E element = (sequence.get(i) == h + 1) ? buffer[i] : null;
+    if (element == null)
+      throw new EmptyQueueException("Queue is empty.");
+    return element;
+  }
+  /** Moves up to max elements from the front of this queue to the rear
+    * of the target and returns how many were moved.  No more elements
+    * are taken than a bounded target of this package has room for.  A
+    * slot is released only once the target accepted its element.  If
+    * the target throws, the element goes back to the front of this
+    * queue, or, if other consumers have claimed elements since, to its
+    * rear, and the exception is rethrown.  No element is lost: if the
+    * queue has no room for it either, the element is returned to the
+    * caller in an exception.
+    * @throws UndeliveredElementException carrying the element, with the
+    * exception of the target as its cause, if the element could not be
+    * put back */
+  public int drainTo(Queue<? super E> target, int max) {
+    max = Math.min(max, room(target));
+    int k = 0;
+    for (long h; k < max && (h = claim()) >= 0; k++) {
+      try {
+	target.enqueue(buffer[(int) h & mask]);
+      } catch (RuntimeException e) {
+	if (!head.compareAndSet(h + 1, h)) {	// unclaim, unless others moved on
+	  E element = release(h);
+	  if (!offer(element))
+	    throw new UndeliveredElementException("Queue is full.", element, e);
+	}
+	throw e;
+      }
+      release(h);
+    }
+    return k;
+  }
+  /** Returns how many more elements the given queue can take, if it is a
+    * bounded queue of this package, and Integer.MAX_VALUE otherwise. */
+  protected static int room(Queue<?> q) {
+    if (q instanceof SpscArrayQueue)
+      return ((SpscArrayQueue<?>) q).capacity() - q.size();
+    if (q instanceof MpmcArrayQueue)
+      return ((MpmcArrayQueue<?>) q).capacity() - q.size();
+    return Integer.MAX_VALUE;
+  }
+  /** Text visualization for debugging purposes */
+  public String toString() {
+    return "MpmcArrayQueue(size=" + size() + ", capacity=" + capacity() + ")";
+  }
+}
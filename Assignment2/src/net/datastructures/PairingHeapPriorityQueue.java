@@ -0,0 +1,191 @@
+package net.datastructures;
+import java.util.ArrayList;
+import java.util.Comparator;
+
+/**
+ * Realization of an adaptable priority queue by means of a pairing
+ * heap.  The heap is a tree with any number of children per node, each
+ * node holding a key no smaller than that of its parent, and each node
+ * is itself the entry returned to the user.  Two heaps are combined in
+ * O(1) time by making the root with the larger key the first child of
+ * the other root.  Hence <tt>insert</tt> and lowering a key with
+ * <tt>replaceKey</tt> take O(1) time (the node is cut from its parent
+ * and combined with the root), while <tt>removeMin</tt> combines the
+ * children of the root in two passes, in O(log n) amortized time.
+ * Raising a key removes and reinserts the entry.  Two whole heaps are
+ * melded the same way, in O(1) time.
+ *
+ * @see FibonacciHeapPriorityQueue
+ * @see HeapAdaptablePriorityQueue
+ */
+public class PairingHeapPriorityQueue<K,V> implements AdaptablePriorityQueue<K,V> {
+  protected Node<K,V> root;	// node with minimum key, null if empty
+  protected int size = 0;	// number of entries
+  protected Comparator<K> comp;	// comparator for the keys
+  /** Nested class for the nodes of the heap, which are also its entries. */
+  protected static class Node<K,V> implements Entry<K,V> {
+    protected K key;
+    protected V value;
+    protected Node<K,V> child;	// first child
+    protected Node<K,V> next;	// next sibling
+    protected Node<K,V> prev;	// previous sibling, or parent of a first child
+    Node(K k, V v) { key = k; value = v; }
+    public K getKey() { return key; }
+    public V getValue() { return value; }
+    public String toString() { return "(" + key  + "," + value + ")"; }
+  }
+  /** Creates an empty heap with the default comparator. */
+  public PairingHeapPriorityQueue() { this(new DefaultComparator<K>()); }
+  /** Creates an empty heap with the given comparator. */
+  public PairingHeapPriorityQueue(Comparator<K> c) { comp = c; }
+  /** Returns the number of entries in the heap. */
+  public int size() { return size; }
+  /** Returns whether the heap is empty. */
+  public boolean isEmpty() { return size == 0; }
+  /** Returns but does not remove an entry with minimum key. */
+  public Entry<K,V> min() throws EmptyPriorityQueueException {
+    if (isEmpty())
+      throw new EmptyPriorityQueueException("Priority queue is empty");
+    return root;
+  }
+  /** Inserts a key-value pair and returns the entry created. */
+  public Entry<K,V> insert(K k, V x) throws InvalidKeyException {
+    checkKey(k);
+    Node<K,V> v = new Node<K,V>(k, x);
+    root = link(root, v);
+    size++;
+    return v;
+  }
+  /** Removes and returns an entry with minimum key. */
+  public Entry<K,V> removeMin() throws EmptyPriorityQueueException {
+    if (isEmpty())
+      throw new EmptyPriorityQueueException("Priority queue is empty");
+    Node<K,V> min = root;
+    root = combineSiblings(min.child);
+    if (root != null) root.prev = null;
+    min.child = null;
+    size--;
+    return min;
+  }
+  /** Removes and returns the given entry from the heap. */
+  public Entry<K,V> remove(Entry<K,V> e) throws InvalidEntryException {
+    Node<K,V> v = checkEntry(e);
+    if (v == root)
+      return removeMin();
+    cut(v);
+    Node<K,V> rest = combineSiblings(v.child);
+    v.child = null;
+    if (rest != null) rest.prev = null;
+    root = link(root, rest);
+    size--;
+    return v;
+  }
+  /** Replaces the key of the given entry and returns the old key. */
+  public K replaceKey(Entry<K,V> e, K k)
+    throws InvalidEntryException, InvalidKeyException {
+    checkKey(k);
+    Node<K,V> v = checkEntry(e);
+    K oldKey = v.key;
+    if (comp.compare(k, oldKey) <= 0) {	// decrease: cut and relink
+      v.key = k;
+      if (v != root) {
+	cut(v);
+	root = link(root, v);
+      }
+    }
+    else {				// increase: remove and reinsert
+      remove(v);
+      v.key = k;
+      root = link(root, v);
+      size++;
+    }
+    return oldKey;
+  }
+  /** Replaces the value of the given entry and returns the old value. */
+  public V replaceValue(Entry<K,V> e, V x) throws InvalidEntryException {
+    Node<K,V> v = checkEntry(e);
+    V oldValue = v.value;
+    v.value = x;
+    return oldValue;
+  }
+  /**
+   * Moves all the entries of another heap, which must order keys the
+   * same way, into this heap in O(1) time, leaving the other heap empty.
+   * The entries of the other heap become entries of this one.
+   * @throws IllegalArgumentException if other is this heap
+   */
+  public void meld(PairingHeapPriorityQueue<K,V> other)
+    throws IllegalArgumentException {
+    if (other == this)
+      throw new IllegalArgumentException("Cannot meld a heap with itself");
+    root = link(root, other.root);
+    size += other.size;
+    other.root = null;
+    other.size = 0;
+  }
+  // Auxiliary methods
+  /** Determines whether a given key is valid. */
+  protected void checkKey(K key) throws InvalidKeyException {
+    try {
+      comp.compare(key,key);
+    }
+    catch(Exception e) {
+      throw new InvalidKeyException("Invalid key");
+    }
+  }
+  /** Checks whether a given entry is a node in a heap. */
+  protected Node<K,V> checkEntry(Entry<K,V> e) throws InvalidEntryException {
+    if (e == null || !(e instanceof Node))
+      throw new InvalidEntryException("Invalid entry");
+    Node<K,V> v = (Node<K,V>) e;
+    if (v.prev == null && v != root)
+      throw new InvalidEntryException("Entry not in the priority queue");
+    return v;
+  }
+  /** Combines two heap-ordered trees (either may be null) whose roots
+    * have no siblings, and returns the root of the result. */
+  protected Node<K,V> link(Node<K,V> a, Node<K,V> b) {
+    if (a == null) return b;
+    if (b == null) return a;
+    if (comp.compare(b.key, a.key) < 0) {
+      Node<K,V> t = a; a = b; b = t;
+    }
+    b.prev = a;		// b becomes the first child of a
+    b.next = a.child;
+    if (a.child != null) a.child.prev = b;
+    a.child = b;
+    a.next = null;
+    return a;
+  }
+  /** Detaches the subtree rooted at non-root node v from its parent. */
+  protected void cut(Node<K,V> v) {
+    if (v.prev.child == v)	// v is a first child
+      v.prev.child = v.next;
+    else
+      v.prev.next = v.next;
+    if (v.next != null) v.next.prev = v.prev;
+    v.prev = v.next = null;
+  }
+  /** Combines a list of siblings into one tree by the two-pass method
+    * and returns its root (null for an empty list). */
+  protected Node<K,V> combineSiblings(Node<K,V> first) {
+    if (first == null) return null;
+    ArrayList<Node<K,V>> pairs = new ArrayList<Node<K,V>>();
+    Node<K,V> v = first;
+    while (v != null) {		// first pass: link pairs left to right
+      Node<K,V> a = v, b = v.next;
+      v = (b == null) ? null : b.next;
+      a.prev = a.next = null;
+      if (b != null) b.prev = b.next = null;
+      pairs.add(link(a, b));
+    }
+    Node<K,V> r = pairs.get(pairs.size() - 1);
+    for (int i = pairs.size() - 2; i >= 0; i--)	// second pass: right to left
+      r = link(pairs.get(i), r);
+    return r;
+  }
+  /** Text visualization for debugging purposes */
+  public String toString() {
+    return "PairingHeap(size=" + size + ", min=" + root + ")";
+  }
+}
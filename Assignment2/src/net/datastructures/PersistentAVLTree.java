@@ -0,0 +1,213 @@
+package net.datastructures;
+import java.util.Comparator;
+
+/**
+ * Realization of an immutable (persistent) AVL tree.  Updates never
+ * modify a tree; {@link #insert(Object,Object) insert} and {@link
+ * #remove(Entry) remove} return a new version that shares every
+ * untouched subtree with the version it was derived from, so each
+ * update allocates only the O(log n) nodes on its search path.  Since
+ * no version ever changes, any number of threads may read a version
+ * while a writer derives new ones from it.
+ *
+ * <p>Entries are kept separate from the nodes that hold them, so an
+ * entry returned by one version can be passed to <tt>remove</tt> on
+ * any later version that still contains it.
+ *
+ * @see AVLTree#snapshot()
+ */
+public class PersistentAVLTree<K,V> {
+  protected final Comparator<K> C;	// comparator
+  protected final Node<K,V> root;	// root of this version, null if empty
+  protected final int numEntries;	// number of entries
+  /** Nested class for the immutable nodes of a persistent AVL tree. */
+  protected static final class Node<K,V> {
+    final Entry<K,V> entry;
+    final Node<K,V> left, right;
+    final int height;
+    Node(Entry<K,V> e, Node<K,V> l, Node<K,V> r) {
+      entry = e; left = l; right = r;
+      height = 1 + Math.max(height(l), height(r));
+    }
+  }
+  /** Nested class for the immutable entries created by this tree. */
+  protected static class AVLEntry<K,V> implements Entry<K,V> {
+    protected final K key;
+    protected final V value;
+    AVLEntry(K k, V v) { key = k; value = v; }
+    public K getKey() { return key; }
+    public V getValue() { return value; }
+    public String toString() { return "(" + key + "," + value + ")"; }
+  }
+  /** Creates an empty tree with the default comparator. */
+  public PersistentAVLTree() { this(new DefaultComparator<K>()); }
+  /** Creates an empty tree with the given comparator. */
+  public PersistentAVLTree(Comparator<K> c) { this(c, null, 0); }
+  /** Creates a version with the given root and number of entries. */
+  protected PersistentAVLTree(Comparator<K> c, Node<K,V> r, int n) {
+    C = c;
+    root = r;
+    numEntries = n;
+  }
+  /** Returns the number of entries in this version. */
+  public int size() { return numEntries; }
+  /** Returns whether this version is empty. */
+  public boolean isEmpty() { return numEntries == 0; }
+  /** Returns the height of this version (0 if it is empty). */
+  public int height() { return height(root); }
+  /** Returns an entry containing the given key, or <tt>null</tt> if
+    * no such entry exists. */
+  public Entry<K,V> find(K key) throws InvalidKeyException {
+    checkKey(key);
+    Node<K,V> v = root;
+    while (v != null) {
+      int comp = C.compare(key, v.entry.getKey());
+      if (comp == 0) return v.entry;
+      v = (comp < 0) ? v.left : v.right;
+    }
+    return null;
+  }
+  /** Returns an iterable collection of all the entries containing
+    * the given key. */
+  public Iterable<Entry<K,V>> findAll(K key) throws InvalidKeyException {
+    checkKey(key);
+    PositionList<Entry<K,V>> L = new NodePositionList<Entry<K,V>>();
+    addAll(L, root, key);
+    return L;
+  }
+  /** Returns an iterable collection of all the entries, in key order. */
+  public Iterable<Entry<K,V>> entries() {
+    PositionList<Entry<K,V>> L = new NodePositionList<Entry<K,V>>();
+    addInorder(L, root);
+    return L;
+  }
+  /** Returns a new version containing all entries of this version plus
+    * a new entry (k,x); this version is left unchanged. */
+  public PersistentAVLTree<K,V> insert(K k, V x) throws InvalidKeyException {
+    checkKey(k);
+    return insertEntry(new AVLEntry<K,V>(k, x));
+  }
+  /** Returns a new version containing all entries of this version plus
+    * the given entry, whose key is assumed to be valid. */
+  protected PersistentAVLTree<K,V> insertEntry(Entry<K,V> e) {
+    return new PersistentAVLTree<K,V>(C,
+	insert(root, e.getKey(), e), numEntries + 1);
+  }
+  /** Returns a new version without the given entry; this version is
+    * left unchanged.  If the entry is not in this version, this version
+    * itself is returned.
+    * @throws InvalidEntryException if the entry was not created by a
+    * persistent or binary search tree, or its key is invalid */
+  public PersistentAVLTree<K,V> remove(Entry<K,V> ent)
+    throws InvalidEntryException {
+    checkEntry(ent);	// may throw an InvalidEntryException
+    Node<K,V> newRoot;
+    try {
+      newRoot = remove(root, ent.getKey(), ent);
+    }
+    catch(ClassCastException e) {	// a key of another dictionary
+      throw new InvalidEntryException("invalid entry key");
+    }
+    if (newRoot == root) return this;	// entry not found
+    return new PersistentAVLTree<K,V>(C, newRoot, numEntries - 1);
+  }
+  // Auxiliary methods
+  /** Checks whether a given key is valid. */
+  protected void checkKey(K key) throws InvalidKeyException {
+    if (key == null)
+      throw new InvalidKeyException("null key");
+  }
+  /** Checks whether a given entry may be in a version: it must have
+    * been created by a persistent tree, or by a binary search tree for a
+    * snapshot of an {@link AVLTree}, and have a key valid for the
+    * comparator. */
+  protected void checkEntry(Entry<K,V> ent) throws InvalidEntryException {
+    if (!(ent instanceof AVLEntry || ent instanceof BinarySearchTree.BSTEntry)
+	|| ent.getKey() == null)
+      throw new InvalidEntryException("invalid entry");
+    try {
+      C.compare(ent.getKey(), ent.getKey());
+    }
+    catch(Exception e) {
+      throw new InvalidEntryException("invalid entry key");
+    }
+  }
+  /** Returns the height of a subtree (0 for the empty subtree). */
+  protected static <K,V> int height(Node<K,V> v) {
+    return (v == null) ? 0 : v.height;
+  }
+  /** Inserts entry e into the subtree rooted at v, copying the search
+    * path, and returns the root of the new subtree. */
+  protected Node<K,V> insert(Node<K,V> v, K k, Entry<K,V> e) {
+    if (v == null) return new Node<K,V>(e, null, null);
+    if (C.compare(k, v.entry.getKey()) <= 0)	// equal keys go left
+      return balance(v.entry, insert(v.left, k, e), v.right);
+    return balance(v.entry, v.left, insert(v.right, k, e));
+  }
+  /** Removes entry e (with key k) from the subtree rooted at v and
+    * returns the root of the new subtree, or v itself if e is not
+    * stored in the subtree. */
+  protected Node<K,V> remove(Node<K,V> v, K k, Entry<K,V> e) {
+    if (v == null) return null;
+    if (v.entry == e) {	// found the node storing e
+      if (v.left == null) return v.right;
+      if (v.right == null) return v.left;
+      Node<K,V> m = v.right;	// move up the successor's entry
+      while (m.left != null) m = m.left;
+      return balance(m.entry, v.left, removeMin(v.right));
+    }
+    int comp = C.compare(k, v.entry.getKey());
+    if (comp <= 0) {	// equal keys may be on either side
+      Node<K,V> l = remove(v.left, k, e);
+      if (l != v.left) return balance(v.entry, l, v.right);
+    }
+    if (comp >= 0) {
+      Node<K,V> r = remove(v.right, k, e);
+      if (r != v.right) return balance(v.entry, v.left, r);
+    }
+    return v;	// e is not in this subtree
+  }
+  /** Removes the leftmost node of a nonempty subtree. */
+  protected Node<K,V> removeMin(Node<K,V> v) {
+    if (v.left == null) return v.right;
+    return balance(v.entry, removeMin(v.left), v.right);
+  }
+  /**
+    * Creates a node storing e with subtrees l and r, performing a
+    * single or double rotation if their heights differ by two.  Only
+    * new nodes are created; l and r themselves are never modified.
+    */
+  protected Node<K,V> balance(Entry<K,V> e, Node<K,V> l, Node<K,V> r) {
+    int hl = height(l), hr = height(r);
+    if (hl > hr + 1) {
+      if (height(l.left) >= height(l.right))	// single right rotation
+	return new Node<K,V>(l.entry, l.left, new Node<K,V>(e, l.right, r));
+      Node<K,V> lr = l.right;			// double rotation
+      return new Node<K,V>(lr.entry, new Node<K,V>(l.entry, l.left, lr.left),
+			   new Node<K,V>(e, lr.right, r));
+    }
+    if (hr > hl + 1) {
+      if (height(r.right) >= height(r.left))	// single left rotation
+	return new Node<K,V>(r.entry, new Node<K,V>(e, l, r.left), r.right);
+      Node<K,V> rl = r.left;			// double rotation
+      return new Node<K,V>(rl.entry, new Node<K,V>(e, l, rl.left),
+			   new Node<K,V>(r.entry, rl.right, r.right));
+    }
+    return new Node<K,V>(e, l, r);
+  }
+  /** Adds to L all entries in the subtree rooted at v having key k. */
+  protected void addAll(PositionList<Entry<K,V>> L, Node<K,V> v, K k) {
+    if (v == null) return;
+    int comp = C.compare(k, v.entry.getKey());
+    if (comp <= 0) addAll(L, v.left, k);
+    if (comp == 0) L.addLast(v.entry);
+    if (comp >= 0) addAll(L, v.right, k);
+  }
+  /** Adds to L all entries in the subtree rooted at v, in inorder. */
+  protected void addInorder(PositionList<Entry<K,V>> L, Node<K,V> v) {
+    if (v == null) return;
+    addInorder(L, v.left);
+    L.addLast(v.entry);
+    addInorder(L, v.right);
+  }
+}
@@ -0,0 +1,373 @@
+package net.datastructures;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Simple throughput benchmarks for the priority queue implementations.
+ * Run with <tt>java net.datastructures.PriorityQueueBenchmark</tt>; the
+ * figures are only meaningful relative to one another on one machine.
+ */
+public class PriorityQueueBenchmark {
+  /** Number of entries inserted by the workloads. */
+  protected static final int ENTRIES = 200000;
+  /** Number of removeMin/insert pairs of the hold workload. */
+  protected static final int HOLD_OPERATIONS = 1000000;
+  /** Number of times each workload is run before it is timed. */
+  protected static final int WARMUPS = 2;
+  /** Numbers of vertices of the random graphs given to Dijkstra's
+    * algorithm. */
+  protected static final int[] GRAPH_VERTICES = { 10000, 40000 };
+  /** Average vertex degrees of the random graphs. */
+  protected static final int[] GRAPH_DEGREES = { 4, 16 };
+  /** Edge weights are drawn from 1 to MAX_WEIGHT. */
+  protected static final int MAX_WEIGHT = 1000;
+  /** Decoration key for edge weights. */
+  protected static final Object WEIGHT = new Object();
+  /** Largest number of threads of the concurrent workload. */
+  protected static final int MAX_THREADS = 32;
+  /** Length of each timed run of the concurrent workload, in ms. */
+  protected static final int RUN_MILLIS = 500;
+  /** Number of shards of the sharded-then-merged workload. */
+  protected static final int SHARDS = 16;
+
+  /** A priority queue with int keys, as used by the workloads. */
+  protected static abstract class Target {
+    abstract void insert(int k);
+    abstract int removeMin();
+  }
+
+  /** Wraps a priority queue with Integer keys. */
+  protected static Target of(final PriorityQueue<Integer,Integer> q) {
+    return new Target() {
+      void insert(int k) { q.insert(k, null); }
+      int removeMin() { return q.removeMin().getKey(); }
+    };
+  }
+  /** Wraps an IntKeyHeap. */
+  protected static Target of(final IntKeyHeap<Object> q) {
+    return new Target() {
+      void insert(int k) { q.insert(k, null); }
+      int removeMin() {
+	int k = q.minKey();
+	q.removeMin();
+	return k;
+      }
+    };
+  }
+  /** Wraps a LongKeyHeap. */
+  protected static Target of(final LongKeyHeap<Object> q) {
+    return new Target() {
+      void insert(int k) { q.insert(k, null); }
+      int removeMin() {
+	int k = (int) q.minKey();
+	q.removeMin();
+	return k;
+      }
+    };
+  }
+  /** Names of the priority queues compared. */
+  protected static final String[] QUEUES = { "HeapPriorityQueue",
+    "DaryHeap d=2", "DaryHeap d=4", "DaryHeap d=8", "IntKeyHeap d=4",
+    "LongKeyHeap d=4", "MinMaxHeap", "SkipList" };
+  /** Returns a new, empty priority queue of the given index in QUEUES. */
+  protected static Target newQueue(int i) {
+    switch (i) {
+    case 0: return of(new HeapPriorityQueue<Integer,Integer>());
+    case 1: return of(new DaryHeapPriorityQueue<Integer,Integer>(2,
+			new DefaultComparator<Integer>()));
+    case 2: return of(new DaryHeapPriorityQueue<Integer,Integer>());
+    case 3: return of(new DaryHeapPriorityQueue<Integer,Integer>(8,
+			new DefaultComparator<Integer>()));
+    case 4: return of(new IntKeyHeap<Object>());
+    case 5: return of(new LongKeyHeap<Object>());
+    case 6: return of(new MinMaxHeapPriorityQueue<Integer,Integer>(
+			new CompactCompleteBinaryTree<Entry<Integer,Integer>>(),
+			new DefaultComparator<Integer>()));
+    default: return of(new SkipListAdaptablePriorityQueue<Integer,Integer>());
+    }
+  }
+
+  /** Inserts the given keys, then removes them all, checking that
+    * they come out in order.  Returns nanoseconds per operation. */
+  protected static double fillAndDrain(Target q, int[] keys) {
+    long start = System.nanoTime();
+    for (int k : keys)
+      q.insert(k);
+    int prev = Integer.MIN_VALUE;
+    for (int i = 0; i < keys.length; i++) {
+      int k = q.removeMin();
+      if (k < prev)
+	throw new IllegalStateException("entries out of order");
+      prev = k;
+    }
+    return (double) (System.nanoTime() - start) / (2 * keys.length);
+  }
+  /** Inserts the given keys, then repeatedly removes the minimum and
+    * inserts a larger key, as an event queue does.  Returns nanoseconds
+    * per removeMin/insert pair. */
+  protected static double hold(Target q, int[] keys, int[] increments) {
+    for (int k : keys)
+      q.insert(k);
+    long start = System.nanoTime();
+    for (int i = 0; i < HOLD_OPERATIONS; i++)
+      q.insert(q.removeMin() + increments[i % increments.length]);
+    return (double) (System.nanoTime() - start) / HOLD_OPERATIONS;
+  }
+  /** Prints the cost of the fill-and-drain and hold workloads for
+    * each priority queue. */
+  protected static void compareHeaps() {
+    Random r = new Random(42);
+    int[] keys = new int[ENTRIES];
+    for (int i = 0; i < ENTRIES; i++) keys[i] = r.nextInt(1 << 30);
+    int[] increments = new int[ENTRIES];
+    for (int i = 0; i < ENTRIES; i++) increments[i] = r.nextInt(1 << 20);
+    System.out.println(ENTRIES + " entries (ns/operation for fill-and-drain,"
+		       + " ns/removeMin+insert for hold):");
+    for (int i = 0; i < QUEUES.length; i++) {
+      for (int w = 0; w < WARMUPS; w++) {
+	fillAndDrain(newQueue(i), keys);
+	hold(newQueue(i), keys, increments);
+      }
+      double fill = fillAndDrain(newQueue(i), keys);
+      double h = hold(newQueue(i), keys, increments);
+      System.out.printf("  %-18s %10.1f %10.1f%n", QUEUES[i], fill, h);
+    }
+  }
+
+  /** Names of the adaptable priority queues compared. */
+  protected static final String[] ADAPTABLE_QUEUES =
+    { "HeapAdaptablePriorityQueue", "PairingHeap", "FibonacciHeap",
+      "MonotoneIntPriorityQueue" };
+  /** Returns a new, empty adaptable priority queue of the given index
+    * in ADAPTABLE_QUEUES. */
+  protected static AdaptablePriorityQueue<Integer,Vertex<Integer>>
+    newAdaptableQueue(int i) {
+    switch (i) {
+    case 0: return new HeapAdaptablePriorityQueue<Integer,Vertex<Integer>>(
+			new DefaultComparator<Integer>());
+    case 1: return new PairingHeapPriorityQueue<Integer,Vertex<Integer>>();
+    case 2: return new FibonacciHeapPriorityQueue<Integer,Vertex<Integer>>();
+    default: return new MonotoneIntPriorityQueue<Vertex<Integer>>();
+    }
+  }
+  /** Returns a connected random graph with n vertices and about
+    * n*degree/2 edges (a cycle through all vertices plus random
+    * edges), with random weights stored under the WEIGHT decoration. */
+  protected static Graph<Integer,Object> randomGraph(int n, int degree, Random r) {
+    Graph<Integer,Object> g = new AdjacencyListGraph<Integer,Object>();
+    ArrayList<Vertex<Integer>> V = new ArrayList<Vertex<Integer>>(n);
+    for (int i = 0; i < n; i++)
+      V.add(g.insertVertex(i));
+    for (int i = 0; i < n; i++)
+      g.insertEdge(V.get(i), V.get((i + 1) % n), null).put(WEIGHT,
+	  1 + r.nextInt(MAX_WEIGHT));
+    for (long m = n; m < (long) n * degree / 2; m++)
+      g.insertEdge(V.get(r.nextInt(n)), V.get(r.nextInt(n)), null).put(WEIGHT,
+	  1 + r.nextInt(MAX_WEIGHT));
+    return g;
+  }
+  /** Runs Dijkstra's algorithm from the first vertex of g with the
+    * given queue, stores the distances in dist, and returns the time
+    * taken in milliseconds. */
+  protected static double dijkstra(Graph<Integer,Object> g,
+      AdaptablePriorityQueue<Integer,Vertex<Integer>> q, int[] dist) {
+    Dijkstra<Integer,Object> d = new Dijkstra<Integer,Object>();
+    Vertex<Integer> s = g.vertices().iterator().next();
+    long start = System.nanoTime();
+    d.execute(g, s, WEIGHT, q);
+    double millis = (System.nanoTime() - start) / 1e6;
+    for (Vertex<Integer> v : g.vertices())
+      dist[v.element()] = d.getDist(v);
+    return millis;
+  }
+  /**
+    * Prints the running time of Dijkstra's algorithm on random sparse
+    * graphs with each adaptable priority queue.  Denser graphs relax
+    * more edges per removed vertex, so they call replaceKey more often
+    * relative to removeMin, which favors the heaps with O(1) key
+    * decreases.  Distances are checked to agree across the queues.
+    */
+  protected static void compareDijkstra() {
+    Random r = new Random(42);
+    System.out.println("Dijkstra on random graphs (ms per run):");
+    for (int n : GRAPH_VERTICES)
+      for (int degree : GRAPH_DEGREES) {
+	Graph<Integer,Object> g = randomGraph(n, degree, r);
+	int[] expected = null;
+	StringBuilder line = new StringBuilder("  n=" + n + " degree="
+					       + degree + ":");
+	for (int i = 0; i < ADAPTABLE_QUEUES.length; i++) {
+	  int[] dist = new int[n];
+	  dijkstra(g, newAdaptableQueue(i), dist);	// warm-up
+	  double millis = dijkstra(g, newAdaptableQueue(i), dist);
+	  if (expected == null) expected = dist;
+	  else if (!Arrays.equals(expected, dist))
+	    throw new IllegalStateException("distances differ");
+	  line.append(String.format(" %s %.1f", ADAPTABLE_QUEUES[i], millis));
+	}
+	System.out.println(line);
+      }
+  }
+
+  /** Names of the ways of merging shards compared. */
+  protected static final String[] MERGES =
+    { "HeapPriorityQueue reinsert", "HeapPriorityQueue insertAll",
+      "LeftistHeap meld", "PairingHeap meld" };
+  /** Fills SHARDS queues of the kind given by its index in MERGES with
+    * the given keys, merges them into the first, and drains it, checking
+    * that the keys come out in order.  Returns the time taken by the
+    * merge and by the drain, in milliseconds. */
+  protected static double[] shardedMerge(int i, int[] keys) {
+    PriorityQueue<Integer,Integer>[] shards =
+      (PriorityQueue<Integer,Integer>[]) new PriorityQueue[SHARDS];
+    for (int s = 0; s < SHARDS; s++)
+      switch (i) {
+      case 0: case 1: shards[s] = new HeapPriorityQueue<Integer,Integer>(); break;
+      case 2: shards[s] = new LeftistHeapPriorityQueue<Integer,Integer>(); break;
+      default: shards[s] = new PairingHeapPriorityQueue<Integer,Integer>();
+      }
+    for (int j = 0; j < keys.length; j++)
+      shards[j % SHARDS].insert(keys[j], keys[j]);
+    PriorityQueue<Integer,Integer> q = shards[0];
+    long start = System.nanoTime();
+    for (int s = 1; s < SHARDS; s++)
+      switch (i) {
+      case 0:
+	while (!shards[s].isEmpty()) {
+	  Entry<Integer,Integer> e = shards[s].removeMin();
+	  q.insert(e.getKey(), e.getValue());
+	}
+	break;
+      case 1:
+	ArrayList<Entry<Integer,Integer>> batch =
+	  new ArrayList<Entry<Integer,Integer>>(shards[s].size());
+	while (!shards[s].isEmpty())
+	  batch.add(shards[s].removeMin());
+	((HeapPriorityQueue<Integer,Integer>) q).insertAll(batch);
+	break;
+      case 2:
+	((LeftistHeapPriorityQueue<Integer,Integer>) q).meld(
+	  (LeftistHeapPriorityQueue<Integer,Integer>) shards[s]);
+	break;
+      default:
+	((PairingHeapPriorityQueue<Integer,Integer>) q).meld(
+	  (PairingHeapPriorityQueue<Integer,Integer>) shards[s]);
+      }
+    double merge = (System.nanoTime() - start) / 1e6;
+    if (q.size() != keys.length)
+      throw new IllegalStateException("entries lost in the merge");
+    start = System.nanoTime();
+    int prev = Integer.MIN_VALUE;
+    while (!q.isEmpty()) {
+      int k = q.removeMin().getKey();
+      if (k < prev)
+	throw new IllegalStateException("entries out of order");
+      prev = k;
+    }
+    return new double[] { merge, (System.nanoTime() - start) / 1e6 };
+  }
+  /** Prints the cost of merging SHARDS priority queues into one, and of
+    * draining the result, for each way of merging. */
+  protected static void compareMerges() {
+    Random r = new Random(42);
+    int[] keys = new int[ENTRIES];
+    for (int i = 0; i < ENTRIES; i++) keys[i] = r.nextInt(1 << 30);
+    System.out.println(ENTRIES + " entries in " + SHARDS
+		       + " shards (ms to merge, ms to drain):");
+    for (int i = 0; i < MERGES.length; i++) {
+      for (int w = 0; w < WARMUPS; w++)
+	shardedMerge(i, keys);
+      double[] t = shardedMerge(i, keys);
+      System.out.printf("  %-28s %8.1f %8.1f%n", MERGES[i], t[0], t[1]);
+    }
+  }
+
+  /** Names of the concurrent priority queues compared. */
+  protected static final String[] CONCURRENT_QUEUES =
+    { "synchronized HeapPriorityQueue", "ConcurrentMultiPriorityQueue",
+      "ConcurrentSkipListPriorityQueue" };
+  /** Returns a new, empty priority queue of the given index in
+    * CONCURRENT_QUEUES, safe for the given number of threads. */
+  protected static PriorityQueue<Integer,Integer> newConcurrentQueue(int i,
+								 int threads) {
+    switch (i) {
+    case 0:
+      final HeapPriorityQueue<Integer,Integer> q =
+	new HeapPriorityQueue<Integer,Integer>();
+      return new PriorityQueue<Integer,Integer>() {
+	public synchronized int size() { return q.size(); }
+	public synchronized boolean isEmpty() { return q.isEmpty(); }
+	public synchronized Entry<Integer,Integer> min() { return q.min(); }
+	public synchronized Entry<Integer,Integer> insert(Integer k, Integer v) {
+	  return q.insert(k, v);
+	}
+	public synchronized Entry<Integer,Integer> removeMin() {
+	  return q.removeMin();
+	}
+      };
+    case 1: return new ConcurrentMultiPriorityQueue<Integer,Integer>(
+		ConcurrentMultiPriorityQueue.DEFAULT_RELAXATION, threads,
+		new DefaultComparator<Integer>());
+    default: return new ConcurrentSkipListPriorityQueue<Integer,Integer>();
+    }
+  }
+  /**
+    * Fills the queue with ENTRIES keys, then runs the given number of
+    * threads for RUN_MILLIS milliseconds, each repeatedly inserting a
+    * random key and removing a minimum.  Returns the number of
+    * insert/removeMin pairs per second.
+    */
+  protected static long insertRemove(final PriorityQueue<Integer,Integer> q,
+				     int threads) throws InterruptedException {
+    Random r = new Random(42);
+    for (int i = 0; i < ENTRIES; i++)
+      q.insert(r.nextInt(1 << 30), i);
+    final long[] counts = new long[threads];
+    final long end = System.currentTimeMillis() + RUN_MILLIS;
+    Thread[] workers = new Thread[threads];
+    for (int i = 0; i < threads; i++) {
+      final int id = i;
+      workers[i] = new Thread() {
+	public void run() {
+	  Random rr = new Random(id);
+	  long n = 0;
+	  while ((n & 255) != 0 || System.currentTimeMillis() < end) {
+	    q.insert(rr.nextInt(1 << 30), id);
+	    q.removeMin();
+	    n++;
+	  }
+	  counts[id] = n;
+	}
+      };
+    }
+    for (Thread t : workers) t.start();
+    for (Thread t : workers) t.join();
+    if (q.size() != ENTRIES)
+      throw new IllegalStateException("entries lost");
+    long total = 0;
+    for (long c : counts) total += c;
+    return total * 1000 / RUN_MILLIS;
+  }
+  /** Prints insert/removeMin pairs per second of the concurrent
+    * priority queues for 1 to MAX_THREADS threads. */
+  protected static void compareConcurrent() throws InterruptedException {
+    System.out.println("Concurrent insert+removeMin pairs/s, "
+		       + Runtime.getRuntime().availableProcessors()
+		       + " processors:");
+    for (int threads = 1; threads <= MAX_THREADS; threads *= 2) {
+      StringBuilder line = new StringBuilder("  " + threads + " threads:");
+      for (int i = 0; i < CONCURRENT_QUEUES.length; i++)
+	line.append(" " + CONCURRENT_QUEUES[i] + " "
+		    + insertRemove(newConcurrentQueue(i, threads), threads));
+      System.out.println(line);
+    }
+  }
+
+  public static void main(String[] args) throws InterruptedException {
+    compareHeaps();
+    compareMerges();
+    compareDijkstra();
+    compareConcurrent();
+  }
+}
@@ -0,0 +1,190 @@
+package net.datastructures;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Counters and histograms describing the work done by one priority
+ * queue: comparisons, sift depths and the latency of each kind of
+ * operation.  An {@link InstrumentedPriorityQueue} records each
+ * operation it forwards into a PriorityQueueMetrics object.
+ * Comparisons are counted by a comparator obtained from
+ * {@link #countingComparator countingComparator} and given to the
+ * queue when it is created; sift depths are recorded by the heaps that
+ * support it ({@link HeapPriorityQueue} and its subclasses and
+ * {@link DaryHeapPriorityQueue}), as the number of levels an entry
+ * moves up or down.
+ *
+ * <p>Latencies are kept in log-linear histograms, as in HdrHistogram:
+ * each power of two of nanoseconds is split into SUB_BUCKETS buckets,
+ * so a latency is known to within 1/SUB_BUCKETS of its value.  All the
+ * arrays are allocated up front, so recording allocates nothing.  The
+ * counters can be read as an immutable {@link Snapshot}.
+ *
+ * <p>Recording is not synchronized; like the queues themselves, a
+ * PriorityQueueMetrics object must not be updated by several threads
+ * at once.
+ */
+public class PriorityQueueMetrics {
+  /** Operation indices. */
+  public static final int INSERT = 0, MIN = 1, REMOVE_MIN = 2, REMOVE = 3,
+    REPLACE_KEY = 4, REPLACE_VALUE = 5;
+  /** Number of kinds of operation. */
+  public static final int OPERATIONS = 6;
+  /** Names of the operations, by index. */
+  protected static final String[] NAMES = { "insert", "min", "removeMin",
+    "remove", "replaceKey", "replaceValue" };
+  /** Number of buckets of the sift depth histograms; deeper sifts are
+    * counted in the last bucket. */
+  public static final int DEPTH_BUCKETS = 64;
+  /** Number of linear buckets per power of two of the latency
+    * histograms. */
+  public static final int SUB_BUCKETS = 8;
+  protected static final int SUB_BITS = 3;	// log2(SUB_BUCKETS)
+  /** Number of buckets of the latency histograms, enough for any
+    * nonnegative long. */
+  public static final int LATENCY_BUCKETS = 64 * SUB_BUCKETS;
+  protected long comparisons;	// comparator calls
+  protected long siftLevels;	// levels moved by sifting entries
+  protected long[] counts = new long[OPERATIONS];	// operations by kind
+  protected long[] opComparisons = new long[OPERATIONS];	// comparisons by kind
+  protected long[] opLevels = new long[OPERATIONS];	// sift levels by kind
+  protected long[] totalNanos = new long[OPERATIONS];	// latency sums by kind
+  protected long[] maxNanos = new long[OPERATIONS];	// largest latencies
+  protected long[][] depths = new long[OPERATIONS][DEPTH_BUCKETS];
+  protected long[][] latencies = new long[OPERATIONS][LATENCY_BUCKETS];
+
+  /** Records one call to a comparator. */
+  public void recordComparison() { comparisons++; }
+  /** Records that an entry moved one level up or down a heap. */
+  public void recordSiftLevel() { siftLevels++; }
+  /** Records an operation of the given kind that started at time
+    * startNanos, when the comparison and sift level counters had the
+    * given values. */
+  public void recordOperation(int op, long startComparisons,
+			      long startLevels, long startNanos) {
+    long nanos = Math.max(0, System.nanoTime() - startNanos);
+    long levels = siftLevels - startLevels;
+    counts[op]++;
+    opComparisons[op] += comparisons - startComparisons;
+    opLevels[op] += levels;
+    depths[op][(int) Math.min(levels, DEPTH_BUCKETS - 1)]++;
+    totalNanos[op] += nanos;
+    if (nanos > maxNanos[op]) maxNanos[op] = nanos;
+    latencies[op][latencyBucket(nanos)]++;
+  }
+  /** Returns a comparator that orders keys as c does and records each
+    * call into these metrics. */
+  public <K> Comparator<K> countingComparator(final Comparator<K> c) {
+    return new Comparator<K>() {
+      public int compare(K a, K b) {
+	comparisons++;
+	return c.compare(a, b);
+      }
+    };
+  }
+  /** Resets all counters to zero. */
+  public void reset() {
+    comparisons = siftLevels = 0;
+    for (int op = 0; op < OPERATIONS; op++) {
+      counts[op] = opComparisons[op] = opLevels[op] = 0;
+      totalNanos[op] = maxNanos[op] = 0;
+      Arrays.fill(depths[op], 0);
+      Arrays.fill(latencies[op], 0);
+    }
+  }
+  /** Returns an immutable copy of the counters. */
+  public Snapshot snapshot() { return new Snapshot(this); }
+  /** Returns the index of the latency bucket of the given nonnegative
+    * number of nanoseconds. */
+  protected static int latencyBucket(long nanos) {
+    if (nanos < 2 * SUB_BUCKETS) return (int) nanos;	// exact buckets
+    int shift = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BITS;
+    return (shift + 1) * SUB_BUCKETS + (int) (nanos >>> shift) - SUB_BUCKETS;
+  }
+  /** Returns the largest number of nanoseconds in the given bucket. */
+  protected static long bucketUpperBound(int b) {
+    if (b < 2 * SUB_BUCKETS) return b;
+    int shift = b / SUB_BUCKETS - 1;
+    return ((long) (SUB_BUCKETS + b % SUB_BUCKETS) << shift) + (1L << shift) - 1;
+  }
+
+  /** Immutable view of the metrics of a priority queue at one moment. */
+  public static class Snapshot {
+    /** Number of comparator calls, including those made outside the
+      * operations recorded (for example by bulk construction). */
+    public final long comparisons;
+    /** Number of levels moved by sifting entries, including those
+      * made outside the operations recorded. */
+    public final long siftLevels;
+    private final long[] counts, opComparisons, opLevels, totalNanos, maxNanos;
+    private final long[][] depths, latencies;
+    Snapshot(PriorityQueueMetrics m) {
+      comparisons = m.comparisons;
+      siftLevels = m.siftLevels;
+      counts = m.counts.clone();
+      opComparisons = m.opComparisons.clone();
+      opLevels = m.opLevels.clone();
+      totalNanos = m.totalNanos.clone();
+      maxNanos = m.maxNanos.clone();
+      depths = new long[OPERATIONS][];
+      latencies = new long[OPERATIONS][];
+      for (int op = 0; op < OPERATIONS; op++) {
+	depths[op] = m.depths[op].clone();
+	latencies[op] = m.latencies[op].clone();
+      }
+    }
+    /** Returns the number of operations of the given kind. */
+    public long count(int op) { return counts[op]; }
+    /** Returns the number of comparisons made by operations of the
+      * given kind. */
+    public long comparisons(int op) { return opComparisons[op]; }
+    /** Returns the average number of comparisons per operation of the
+      * given kind. */
+    public double averageComparisons(int op) {
+      return (counts[op] == 0) ? 0 : (double) opComparisons[op] / counts[op];
+    }
+    /** Returns the average sift depth of operations of the given kind. */
+    public double averageSiftDepth(int op) {
+      return (counts[op] == 0) ? 0 : (double) opLevels[op] / counts[op];
+    }
+    /** Returns the number of operations of the given kind that sifted
+      * an entry by the given number of levels. */
+    public long siftsAtDepth(int op, int depth) {
+      return (depth < 0 || depth >= DEPTH_BUCKETS) ? 0 : depths[op][depth];
+    }
+    /** Returns the average latency of operations of the given kind, in
+      * nanoseconds. */
+    public double meanLatency(int op) {
+      return (counts[op] == 0) ? 0 : (double) totalNanos[op] / counts[op];
+    }
+    /** Returns the largest latency of operations of the given kind, in
+      * nanoseconds. */
+    public long maxLatency(int op) { return maxNanos[op]; }
+    /** Returns a latency, in nanoseconds, not exceeded by the fraction q
+      * of the operations of the given kind, to within the histogram
+      * resolution. */
+    public long latencyPercentile(int op, double q) {
+      if (counts[op] == 0) return 0;
+      long target = Math.max(1, (long) Math.ceil(q * counts[op]));
+      long seen = 0;
+      for (int b = 0; b < LATENCY_BUCKETS; b++) {
+	seen += latencies[op][b];
+	if (seen >= target)
+	  return Math.min(bucketUpperBound(b), maxNanos[op]);
+      }
+      return maxNanos[op];
+    }
+    public String toString() {
+      StringBuilder s = new StringBuilder("comparisons=" + comparisons
+					  + ", siftLevels=" + siftLevels);
+      for (int op = 0; op < OPERATIONS; op++)
+	if (counts[op] > 0)
+	  s.append(String.format("%n  %s: count=%d, avgComparisons=%.2f,"
+				 + " avgSiftDepth=%.2f, p50=%dns, p99=%dns, max=%dns",
+				 NAMES[op], counts[op], averageComparisons(op),
+				 averageSiftDepth(op), latencyPercentile(op, 0.5),
+				 latencyPercentile(op, 0.99), maxNanos[op]));
+      return s.toString();
+    }
+  }
+}
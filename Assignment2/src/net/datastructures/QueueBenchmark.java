@@ -0,0 +1,184 @@
+package net.datastructures;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Simple throughput benchmarks for the queue and deque
+ * implementations.  Run with <tt>java net.datastructures.QueueBenchmark</tt>;
+ * the figures are only meaningful relative to one another on one
+ * machine.  The searches run on the random graph of
+ * {@link StackBenchmark}.
+ */
+public class QueueBenchmark {
+  /** Number of elements kept in the queue by the hold workload. */
+  protected static final int HOLD_LENGTH = 1000;
+  /** Number of dequeue/enqueue pairs of the hold workload. */
+  protected static final int HOLD_OPERATIONS = 5000000;
+  /** Number of times each workload is run before it is timed. */
+  protected static final int WARMUPS = 3;
+
+  /** A queue or deque of int values, as used by the workloads. */
+  protected static abstract class Target {
+    abstract void addLast(int x);
+    abstract int removeFirst();
+    abstract boolean isEmpty();
+    void addFirst(int x) { throw new UnsupportedOperationException(); }
+  }
+
+  /** Wraps a queue of Integers. */
+  protected static Target of(final Queue<Integer> q) {
+    return new Target() {
+      void addLast(int x) { q.enqueue(x); }
+      int removeFirst() { return q.dequeue(); }
+      boolean isEmpty() { return q.isEmpty(); }
+    };
+  }
+  /** Wraps a queue of ints. */
+  protected static Target of(final IntArrayQueue q) {
+    return new Target() {
+      void addLast(int x) { q.enqueue(x); }
+      int removeFirst() { return q.dequeue(); }
+      boolean isEmpty() { return q.isEmpty(); }
+    };
+  }
+  /** Wraps a deque of Integers. */
+  protected static Target of(final Deque<Integer> d) {
+    return new Target() {
+      void addLast(int x) { d.addLast(x); }
+      void addFirst(int x) { d.addFirst(x); }
+      int removeFirst() { return d.removeFirst(); }
+      boolean isEmpty() { return d.isEmpty(); }
+    };
+  }
+  /** Wraps a deque of ints. */
+  protected static Target of(final IntArrayDeque d) {
+    return new Target() {
+      void addLast(int x) { d.addLast(x); }
+      void addFirst(int x) { d.addFirst(x); }
+      int removeFirst() { return d.removeFirst(); }
+      boolean isEmpty() { return d.isEmpty(); }
+    };
+  }
+  /** Names of the queues compared. */
+  protected static final String[] QUEUES =
+    { "NodeQueue", "ArrayQueue", "IntArrayQueue" };
+  /** Returns a new, empty queue of the given index in QUEUES. */
+  protected static Target newQueue(int i) {
+    switch (i) {
+    case 0: return of(new NodeQueue<Integer>());
+    case 1: return of(new ArrayQueue<Integer>());
+    default: return of(new IntArrayQueue());
+    }
+  }
+  /** Names of the deques compared. */
+  protected static final String[] DEQUES =
+    { "NodeDeque", "CircularArrayDeque", "IntArrayDeque" };
+  /** Returns a new, empty deque of the given index in DEQUES. */
+  protected static Target newDeque(int i) {
+    switch (i) {
+    case 0: return of(new NodeDeque<Integer>());
+    case 1: return of(new CircularArrayDeque<Integer>());
+    default: return of(new IntArrayDeque());
+    }
+  }
+
+  /** Fills the queue with HOLD_LENGTH elements, then repeatedly moves
+    * the front element to the rear.  Returns nanoseconds per
+    * dequeue/enqueue pair. */
+  protected static double hold(Target q) {
+    for (int i = 0; i < HOLD_LENGTH; i++)
+      q.addLast(i);
+    long start = System.nanoTime();
+    for (int i = 0; i < HOLD_OPERATIONS; i++)
+      q.addLast(q.removeFirst());
+    return (double) (System.nanoTime() - start) / HOLD_OPERATIONS;
+  }
+  /** Searches the graph breadth-first from vertex 0, keeping the
+    * frontier in the given queue, stores the number of edges on a
+    * shortest path to each vertex (-1 if unreachable) in dist, and
+    * returns the time taken in milliseconds. */
+  protected static double breadthFirst(Target q, int[][] adj, int[] dist) {
+    long start = System.nanoTime();
+    Arrays.fill(dist, -1);
+    dist[0] = 0;
+    q.addLast(0);
+    while (!q.isEmpty()) {
+      int v = q.removeFirst();
+      for (int w : adj[v])
+	if (dist[w] < 0) {
+	  dist[w] = dist[v] + 1;
+	  q.addLast(w);
+	}
+    }
+    return (System.nanoTime() - start) / 1e6;
+  }
+  /** Computes shortest path lengths from vertex 0 by 0-1 breadth-first
+    * search, where the edge to the j-th neighbor of v weighs
+    * weight[v][j], 0 or 1: a vertex reached by an edge of weight 0 is
+    * added at the front of the deque, and by an edge of weight 1 at
+    * the rear.  Stores the distances in dist and returns the time
+    * taken in milliseconds. */
+  protected static double zeroOneBreadthFirst(Target d, int[][] adj,
+      int[][] weight, int[] dist) {
+    long start = System.nanoTime();
+    Arrays.fill(dist, Integer.MAX_VALUE);
+    dist[0] = 0;
+    d.addFirst(0);
+    while (!d.isEmpty()) {
+      int v = d.removeFirst();
+      for (int j = 0; j < adj[v].length; j++) {
+	int w = adj[v][j], dw = dist[v] + weight[v][j];
+	if (dw < dist[w]) {
+	  dist[w] = dw;
+	  if (weight[v][j] == 0) d.addFirst(w);
+	  else d.addLast(w);
+	}
+      }
+    }
+    return (System.nanoTime() - start) / 1e6;
+  }
+  /** Prints the cost of the hold and breadth-first search workloads for
+    * each queue, and of 0-1 breadth-first search for each deque.
+    * Distances are checked to agree across the implementations. */
+  protected static void compareQueues() {
+    Random r = new Random(42);
+    int[][] adj = StackBenchmark.randomGraph(r);
+    int[][] weight = new int[adj.length][];
+    for (int v = 0; v < adj.length; v++) {
+      weight[v] = new int[adj[v].length];
+      for (int j = 0; j < adj[v].length; j++)
+	weight[v][j] = r.nextInt(2);
+    }
+    int[] dist = new int[adj.length], expected = null;
+    System.out.println("Queues: hold of " + HOLD_LENGTH + " elements"
+		       + " (ns/dequeue+enqueue), breadth-first search of "
+		       + adj.length + " vertices (ms):");
+    for (int i = 0; i < QUEUES.length; i++) {
+      for (int w = 0; w < WARMUPS; w++) {
+	hold(newQueue(i));
+	breadthFirst(newQueue(i), adj, dist);
+      }
+      double h = hold(newQueue(i));
+      double b = breadthFirst(newQueue(i), adj, dist);
+      if (expected == null) expected = dist.clone();
+      else if (!Arrays.equals(expected, dist))
+	throw new IllegalStateException("distances differ");
+      System.out.printf("  %-16s %8.1f %8.1f%n", QUEUES[i], h, b);
+    }
+    expected = null;
+    System.out.println("Deques: 0-1 breadth-first search (ms):");
+    for (int i = 0; i < DEQUES.length; i++) {
+      for (int w = 0; w < WARMUPS; w++)
+	zeroOneBreadthFirst(newDeque(i), adj, weight, dist);
+      double z = zeroOneBreadthFirst(newDeque(i), adj, weight, dist);
+      if (expected == null) expected = dist.clone();
+      else if (!Arrays.equals(expected, dist))
+	throw new IllegalStateException("distances differ");
+      System.out.printf("  %-16s %8.1f%n", DEQUES[i], z);
+    }
+  }
+
+  public static void main(String[] args) {
+    compareQueues();
+  }
+}
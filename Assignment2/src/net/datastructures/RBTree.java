@@ -2,6 +2,7 @@
 
 package net.datastructures;
 import java.util.Comparator;
+import java.util.Iterator;
 
 /** 
  * Realization of a red-black Tree by extending a binary search tree.
@@ -69,6 +70,7 @@ public class RBTree<K,V>
       setRed(right(posV));
     }  
     else  { // Case 2: recoloring
+      if (metrics != null) metrics.recordRecoloring();
       setBlack(posV);
       setBlack(sibling(posV));
       Position<Entry<K,V>> posU = parent(posV);
@@ -111,6 +113,7 @@ public class RBTree<K,V>
       	setBlack(right(posZ));
 	return;
       }
+      if (metrics != null) metrics.recordRecoloring();
       setBlack(posR);
       setRed(posY);
       if (!isPosRed(posX))  { // Case 2: recoloring
@@ -130,6 +133,36 @@ public class RBTree<K,V>
   }
   //end#fragment remedyDoubleBlack
 
+  /** Builds a red-black tree, with the default comparator, from entries
+    * given in nondecreasing key order, in O(n) time. */
+  public static <K,V> RBTree<K,V> fromSorted(Iterator<Entry<K,V>> it)
+    throws InvalidKeyException {
+    return fromSorted(it, new DefaultComparator<K>(), false);
+  }
+  /**
+    * Builds a red-black tree, with the given comparator, from entries
+    * given in nondecreasing key order, in O(n) time.  If
+    * <tt>parallel</tt> is true, large inputs are built with fork-join
+    * tasks.
+    * @throws InvalidKeyException if a key is invalid or out of order
+    */
+  public static <K,V> RBTree<K,V> fromSorted(Iterator<Entry<K,V>> it,
+      Comparator<K> c, boolean parallel) throws InvalidKeyException {
+    RBTree<K,V> tree = new RBTree<K,V>(c);
+    tree.buildFromSorted(it, parallel);
+    return tree;
+  }
+  /**
+    * Colors a node created by a bulk build.  The balanced build fills
+    * every level except possibly the deepest one, so coloring exactly
+    * the nodes on the deepest level red (other than a lone root) gives
+    * every path the same number of black nodes.
+    */
+  protected void initBuiltNode(Position<Entry<K,V>> v, int depth, int maxDepth) {
+    if (depth > 0 && depth == maxDepth)
+      setRed(v);
+  }
+
   /** Returns whether a node is red. */
   protected boolean isPosRed(Position<Entry<K,V>> position)  {
     return ((RBNode) position).isRed();
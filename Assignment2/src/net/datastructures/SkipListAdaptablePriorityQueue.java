@@ -0,0 +1,179 @@
+package net.datastructures;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Realization of an adaptable priority queue by means of a skip list
+ * sorted in nondecreasing order.  Like
+ * {@link SortedListAdaptablePriorityQueue}, the entry with minimum key
+ * is always at the front, so <tt>min</tt> and <tt>removeMin</tt> take
+ * O(1) expected time; but an insertion point is found by searching the
+ * skip list rather than walking the list, so <tt>insert</tt>,
+ * <tt>remove</tt> and <tt>replaceKey</tt> take O(log n) expected time.
+ *
+ * <p>Entries with equal keys are removed in first-in first-out order:
+ * each entry gets a sequence number when it is inserted or its key is
+ * replaced, and ties between keys are broken by sequence number.
+ *
+ * @see SortedListPriorityQueue
+ */
+public class SkipListAdaptablePriorityQueue<K,V>
+  implements AdaptablePriorityQueue<K,V> {
+  /** Maximum number of levels of the skip list. */
+  protected static final int MAX_LEVEL = 32;
+  protected Node<K,V> head = new Node<K,V>(null, null, MAX_LEVEL);	// sentinel
+  protected int level = 1;	// number of levels in use
+  protected int size = 0;	// number of entries
+  protected long nextSeq = 0;	// sequence number of the next insertion
+  protected Comparator<K> comp;	// comparator for the keys
+  protected Random rand = new Random();	// coin flips for node heights
+  /** Nested class for the towers of the skip list, which are also its
+    * entries. */
+  protected static class Node<K,V> implements Entry<K,V> {
+    protected K key;
+    protected V value;
+    protected long seq;		// tie-breaker among equal keys
+    protected Node<K,V>[] next;	// successor on each level, null if removed
+    Node(K k, V v, int height) {
+      key = k;
+      value = v;
+      next = (Node<K,V>[]) new Node[height];
+    }
+    public K getKey() { return key; }
+    public V getValue() { return value; }
+    public String toString() { return "(" + key  + "," + value + ")"; }
+  }
+  /** Creates an empty priority queue with the default comparator. */
+  public SkipListAdaptablePriorityQueue() { this(new DefaultComparator<K>()); }
+  /** Creates an empty priority queue with the given comparator. */
+  public SkipListAdaptablePriorityQueue(Comparator<K> c) { comp = c; }
+  /** Returns the number of entries in the priority queue. */
+  public int size() { return size; }
+  /** Returns whether the priority queue is empty. */
+  public boolean isEmpty() { return size == 0; }
+  /** Returns but does not remove an entry with minimum key. */
+  public Entry<K,V> min() throws EmptyPriorityQueueException {
+    if (isEmpty())
+      throw new EmptyPriorityQueueException("Priority queue is empty");
+    return head.next[0];
+  }
+  /** Inserts a key-value pair and returns the entry created. */
+  public Entry<K,V> insert(K k, V x) throws InvalidKeyException {
+    checkKey(k);
+    Node<K,V> v = new Node<K,V>(k, x, randomHeight());
+    insertNode(v);
+    size++;
+    return v;
+  }
+  /** Removes and returns an entry with minimum key. */
+  public Entry<K,V> removeMin() throws EmptyPriorityQueueException {
+    if (isEmpty())
+      throw new EmptyPriorityQueueException("Priority queue is empty");
+    Node<K,V> min = head.next[0];
+    for (int i = 0; i < min.next.length; i++)	// head precedes min on
+      head.next[i] = min.next[i];		// every level of its tower
+    while (level > 1 && head.next[level - 1] == null)
+      level--;
+    min.next = null;
+    size--;
+    return min;
+  }
+  /** Removes and returns the given entry. */
+  public Entry<K,V> remove(Entry<K,V> e) throws InvalidEntryException {
+    Node<K,V> v = checkEntry(e);
+    unlinkNode(v);
+    v.next = null;
+    size--;
+    return v;
+  }
+  /** Replaces the key of the given entry and returns the old key.  The
+    * entry moves behind all entries with an equal key. */
+  public K replaceKey(Entry<K,V> e, K k)
+    throws InvalidEntryException, InvalidKeyException {
+    checkKey(k);
+    Node<K,V> v = checkEntry(e);
+    K oldKey = v.key;
+    unlinkNode(v);
+    v.key = k;
+    insertNode(v);
+    return oldKey;
+  }
+  /** Replaces the value of the given entry and returns the old value. */
+  public V replaceValue(Entry<K,V> e, V x) throws InvalidEntryException {
+    Node<K,V> v = checkEntry(e);
+    V oldValue = v.value;
+    v.value = x;
+    return oldValue;
+  }
+  // Auxiliary methods
+  /** Determines whether a given key is valid. */
+  protected void checkKey(K key) throws InvalidKeyException {
+    try {
+      comp.compare(key,key);
+    }
+    catch(Exception e) {
+      throw new InvalidKeyException("Invalid key");
+    }
+  }
+  /** Checks whether a given entry is in a priority queue. */
+  protected Node<K,V> checkEntry(Entry<K,V> e) throws InvalidEntryException {
+    if (e == null || !(e instanceof Node))
+      throw new InvalidEntryException("Invalid entry");
+    Node<K,V> v = (Node<K,V>) e;
+    if (v.next == null)
+      throw new InvalidEntryException("Entry not in the priority queue");
+    return v;
+  }
+  /** Returns the height of a new tower: i with probability 1/2^i. */
+  protected int randomHeight() {
+    int h = 1 + Integer.numberOfTrailingZeros(rand.nextInt());
+    return Math.min(h, MAX_LEVEL);
+  }
+  /** Returns whether node a goes before node b: by key, then by
+    * sequence number. */
+  protected boolean before(Node<K,V> a, Node<K,V> b) {
+    int c = comp.compare(a.key, b.key);
+    return c < 0 || (c == 0 && a.seq < b.seq);
+  }
+  /** Fills update with the last node before v on each level in use. */
+  protected void findPredecessors(Node<K,V> v, Node<K,V>[] update) {
+    Node<K,V> p = head;
+    for (int i = level - 1; i >= 0; i--) {
+      while (p.next[i] != null && before(p.next[i], v))
+	p = p.next[i];
+      update[i] = p;
+    }
+  }
+  /** Links node v, with a fresh sequence number, into the skip list. */
+  protected void insertNode(Node<K,V> v) {
+    v.seq = nextSeq++;
+    int h = v.next.length;
+    Node<K,V>[] update = (Node<K,V>[]) new Node[Math.max(h, level)];
+    for (int i = level; i < h; i++)
+      update[i] = head;	// levels not in use yet
+    findPredecessors(v, update);
+    if (h > level) level = h;
+    for (int i = 0; i < h; i++) {
+      v.next[i] = update[i].next[i];
+      update[i].next[i] = v;
+    }
+  }
+  /** Unlinks node v from every level of the skip list. */
+  protected void unlinkNode(Node<K,V> v) {
+    Node<K,V>[] update = (Node<K,V>[]) new Node[level];
+    findPredecessors(v, update);
+    for (int i = 0; i < v.next.length; i++)
+      update[i].next[i] = v.next[i];
+    while (level > 1 && head.next[level - 1] == null)
+      level--;
+  }
+  /** Text visualization for debugging purposes */
+  public String toString() {
+    StringBuilder s = new StringBuilder("[");
+    for (Node<K,V> v = head.next[0]; v != null; v = v.next[0]) {
+      if (v != head.next[0]) s.append(", ");
+      s.append(v);
+    }
+    return s.append("]").toString();
+  }
+}
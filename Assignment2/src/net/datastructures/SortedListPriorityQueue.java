@@ -5,7 +5,8 @@ import java.util.Comparator;
 //end#fragment SortedListPriorityQueue1
 /**
   * Realization of a priority queue by means of a sorted node list in
-  * nondecreasing order.
+  * nondecreasing order.  Insertion walks the list, in O(n) time; see
+  * {@link SkipListAdaptablePriorityQueue} for O(log n) insertion.
   * @author Roberto Tamassia, Michael Goodrich, Eric Zamore
   */
 //begin#fragment SortedListPriorityQueue1
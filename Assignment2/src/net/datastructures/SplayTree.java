@@ -0,0 +1,68 @@
+package net.datastructures;
+import java.util.Comparator;
+
+/**
+ * Realization of a dictionary by means of a splay tree.  After each
+ * operation the node where it ended is moved to the root by a series
+ * of rotations (a splaying step), so recently accessed entries stay
+ * near the top.  No operation is guaranteed O(log n) time, but any
+ * sequence of m operations takes O((n + m) log n) amortized time, and
+ * skewed access patterns, where a few keys are looked up most of the
+ * time, are served from shallow nodes.
+ *
+ * @see Treap
+ */
+public class SplayTree<K,V>
+  extends BinarySearchTree<K,V> implements Dictionary<K,V> {
+  public SplayTree() { super(); }
+  public SplayTree(Comparator<K> C) { super(C); }
+  /** Returns an entry containing the given key, or null if no such
+    * entry exists, and splays the node where the search ended. */
+  public Entry<K,V> find(K key) throws InvalidKeyException {
+    Entry<K,V> toReturn = super.find(key);
+    splayAt(actionPos);
+    return toReturn;
+  }
+  /** Inserts an entry into the tree, splays its node and returns the
+    * newly created entry. */
+  public Entry<K,V> insert(K k, V x) throws InvalidKeyException {
+    Entry<K,V> toReturn = super.insert(k, x);
+    splay(actionPos);	// the new internal node
+    return toReturn;
+  }
+  /** Removes and returns the given entry, splaying the parent of the
+    * removed node. */
+  public Entry<K,V> remove(Entry<K,V> ent) throws InvalidEntryException {
+    Entry<K,V> toReturn = super.remove(ent);
+    if (!isRoot(actionPos))
+      splay(parent(actionPos));
+    return toReturn;
+  }
+  /** Splays a node where a search ended: the node itself if it is
+    * internal, otherwise its parent. */
+  protected void splayAt(Position<Entry<K,V>> v) {
+    if (isExternal(v)) {
+      if (isRoot(v)) return;	// the tree is empty
+      v = parent(v);
+    }
+    splay(v);
+  }
+  /** Moves internal node x to the root by zig, zig-zig and zig-zag
+    * steps. */
+  protected void splay(Position<Entry<K,V>> x) {
+    while (!isRoot(x)) {
+      Position<Entry<K,V>> y = parent(x);
+      if (isRoot(y))		// zig
+	rotate(x);
+      else if ((x == left(y)) == (y == left(parent(y)))) {	// zig-zig
+	rotate(y);
+	rotate(x);
+      }
+      else {			// zig-zag
+	rotate(x);
+	rotate(x);
+      }
+    }
+    actionPos = x;
+  }
+}
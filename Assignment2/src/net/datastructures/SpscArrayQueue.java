@@ -0,0 +1,136 @@
+package net.datastructures;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, lock-free queue for exactly one producer thread and one
+ * consumer thread, such as two stages of a pipeline.  The elements are
+ * kept in a ring buffer whose length is a power of two.  The producer
+ * alone advances the tail and the consumer alone advances the head;
+ * each publishes its index with <tt>lazySet</tt>, an ordered store
+ * that needs no memory fence, and keeps a cached copy of the other
+ * index, which it rereads only when the cache says the queue is full
+ * (or empty).  Each index is kept together with its owner's cache in
+ * one padded object, so what the producer writes and what the consumer
+ * writes lie on different cache lines.
+ *
+ * <p>Only the producer may call <tt>enqueue</tt> and <tt>offer</tt>,
+ * and only the consumer may call <tt>front</tt>, <tt>dequeue</tt>,
+ * <tt>poll</tt> and <tt>drainTo</tt>; <tt>size</tt> and
+ * <tt>isEmpty</tt> may be called by any thread but are only a snapshot.
+ * Null elements are not allowed, since <tt>poll</tt> returns null when
+ * the queue is empty.
+ *
+ * @see MpmcArrayQueue
+ */
+public class SpscArrayQueue<E> implements Queue<E> {
+  /** Index padded to fill a cache line on its own. */
+  protected static class PaddedAtomicLong extends AtomicLong {
+    long p1, p2, p3, p4, p5, p6, p7;	// padding against false sharing
+  }
+  /** Index of one side together with that side's copy of the other
+    * index, padded to fill a cache line on their own. */
+  protected static class PaddedIndex extends AtomicLong {
+    long cache;		// owner's copy of the other side's index
+    long p1, p2, p3, p4, p5, p6;	// padding against false sharing
+  }
+  protected final E[] buffer;	// ring buffer of elements
+  protected final int mask;	// buffer length minus one
+  protected final PaddedIndex head = new PaddedIndex();	// next to poll; cache: consumer's copy of tail
+  protected final PaddedIndex tail = new PaddedIndex();	// next to offer; cache: producer's copy of head
+  /** Creates an empty queue with room for at least cap elements.
+    * @throws IllegalArgumentException if cap is less than 1 */
+  public SpscArrayQueue(int cap) {
+    buffer = (E[]) new Object[ArrayQueue.ceilPowerOfTwo(cap)];
+    mask = buffer.length - 1;
+  }
+  /** Returns the number of elements the queue can hold. */
+  public int capacity() { return buffer.length; }
+  /** Returns the number of elements in the queue. */
+  public int size() {
+    long h = head.get(), t = tail.get();
+    return (int) Math.max(0, Math.min(t - h, buffer.length));
+  }
+  /** Returns whether the queue is empty. */
+  public boolean isEmpty() { return head.get() >= tail.get(); }
+  /** Inserts an element at the rear of the queue if there is room, and
+    * returns whether it did.  Producer only. */
+  public boolean offer(E element) {
+    if (element == null)
+      throw new IllegalArgumentException("Null element");
+    long t = tail.get();
+    if (t - tail.cache >= buffer.length) {
+      tail.cache = head.get();
+      if (t - tail.cache >= buffer.length)
+	return false;		// full
+    }
+    buffer[(int) t & mask] = element;
+    tail.lazySet(t + 1);	// publish the element
+    return true;
+  }
+  /** Inserts an element at the rear of the queue.  Producer only.
+    * @throws FullQueueException if the queue is full */
+  public void enqueue(E element) throws FullQueueException {
+    if (!offer(element))
+      throw new FullQueueException("Queue is full.");
+  }
+  /** Removes and returns the element at the front of the queue, or
+    * returns null if the queue is empty.  Consumer only. */
+  public E poll() {
+    long h = head.get();
+    if (h >= head.cache) {
+      head.cache = tail.get();
+      if (h >= head.cache)
+	return null;		// empty
+    }
+    int i = (int) h & mask;
+    E element = buffer[i];
+    buffer[i] = null;
+    head.lazySet(h + 1);	// release the slot
+    return element;
+  }
+  /** Removes and returns the element at the front of the queue.
+    * Consumer only. */
+  public E dequeue() throws EmptyQueueException {
+    E element = poll();
+    if (element == null)
+      throw new EmptyQueueException("Queue is empty.");
+    return element;
+  }
+  /** Returns the element at the front of the queue.  Consumer only. */
+  public E front() throws EmptyQueueException {
+    long h = head.get();
+    if (h >= head.cache) {
+      head.cache = tail.get();
+      if (h >= head.cache)
+	throw new EmptyQueueException("Queue is empty.");
+    }
+    return buffer[(int) h & mask];
+  }
+  /** Moves up to max elements from the front of this queue to the rear
+    * of the target, releasing their slots at once, and returns how many
+    * were moved.  No more elements are taken than a bounded target of
+    * this package has room for; if the target still throws, the
+    * elements not moved stay in this queue.  Consumer only. */
+  public int drainTo(Queue<? super E> target, int max) {
+    long h = head.get();
+    head.cache = tail.get();
+    int k = (int) Math.min(Math.min(head.cache - h, max),
+			   MpmcArrayQueue.room(target));
+    int j = 0;
+    try {
+      for (; j < k; j++) {
+	int i = (int) (h + j) & mask;
+	target.enqueue(buffer[i]);
+	buffer[i] = null;
+      }
+    } finally {		// release the slots moved, even if the target throws
+      if (j > 0)
+	head.lazySet(h + j);
+    }
+    return j;
+  }
+  /** Text visualization for debugging purposes */
+  public String toString() {
+    return "SpscArrayQueue(size=" + size() + ", capacity=" + capacity() + ")";
+  }
+}
@@ -0,0 +1,133 @@
+package net.datastructures;
+import java.util.Random;
+
+/**
+ * Simple throughput benchmarks for the stack implementations.  Run
+ * with <tt>java net.datastructures.StackBenchmark</tt>; the figures are
+ * only meaningful relative to one another on one machine.
+ */
+public class StackBenchmark {
+  /** Number of elements pushed by the push/pop workload. */
+  protected static final int ELEMENTS = 1000000;
+  /** Number of vertices of the random graph searched depth-first. */
+  protected static final int GRAPH_VERTICES = 200000;
+  /** Out-degree of every vertex of the random graph. */
+  protected static final int GRAPH_DEGREE = 8;
+  /** Number of times each workload is run before it is timed. */
+  protected static final int WARMUPS = 3;
+
+  /** A stack of int values, as used by the workloads. */
+  protected static abstract class Target {
+    abstract void push(int x);
+    abstract int pop();
+    abstract boolean isEmpty();
+  }
+
+  /** Wraps a stack of Integers. */
+  protected static Target of(final Stack<Integer> s) {
+    return new Target() {
+      void push(int x) { s.push(x); }
+      int pop() { return s.pop(); }
+      boolean isEmpty() { return s.isEmpty(); }
+    };
+  }
+  /** Wraps a stack of ints. */
+  protected static Target of(final IntArrayStack s) {
+    return new Target() {
+      void push(int x) { s.push(x); }
+      int pop() { return s.pop(); }
+      boolean isEmpty() { return s.isEmpty(); }
+    };
+  }
+  /** Wraps a stack of longs. */
+  protected static Target of(final LongArrayStack s) {
+    return new Target() {
+      void push(int x) { s.push(x); }
+      int pop() { return (int) s.pop(); }
+      boolean isEmpty() { return s.isEmpty(); }
+    };
+  }
+  /** Names of the stacks compared. */
+  protected static final String[] STACKS = { "NodeStack",
+    "ArrayStack (presized)", "GrowableArrayStack", "IntArrayStack",
+    "LongArrayStack" };
+  /** Returns a new, empty stack of the given index in STACKS, which
+    * must hold up to max elements. */
+  protected static Target newStack(int i, int max) {
+    switch (i) {
+    case 0: return of(new NodeStack<Integer>());
+    case 1: return of(new ArrayStack<Integer>(max));
+    case 2: return of(new GrowableArrayStack<Integer>());
+    case 3: return of(new IntArrayStack());
+    default: return of(new LongArrayStack());
+    }
+  }
+
+  /** Pushes ELEMENTS values, then pops them all, checking that they
+    * come out in reverse order.  Returns nanoseconds per operation. */
+  protected static double pushPop(Target s) {
+    long start = System.nanoTime();
+    for (int i = 0; i < ELEMENTS; i++)
+      s.push(i);
+    for (int i = ELEMENTS - 1; i >= 0; i--)
+      if (s.pop() != i)
+	throw new IllegalStateException("elements out of order");
+    return (double) (System.nanoTime() - start) / (2 * ELEMENTS);
+  }
+  /** Returns a random directed graph as adjacency arrays: adj[v] holds
+    * the targets of the edges leaving vertex v. */
+  protected static int[][] randomGraph(Random r) {
+    int[][] adj = new int[GRAPH_VERTICES][GRAPH_DEGREE];
+    for (int[] a : adj)
+      for (int j = 0; j < GRAPH_DEGREE; j++)
+	a[j] = r.nextInt(GRAPH_VERTICES);
+    return adj;
+  }
+  /** Searches the graph depth-first from vertex 0, keeping the frontier
+    * on the given stack, and returns the time taken in milliseconds.
+    * The number of vertices reached is stored in reached[0]. */
+  protected static double depthFirst(Target s, int[][] adj, int[] reached) {
+    long start = System.nanoTime();
+    boolean[] visited = new boolean[adj.length];
+    int count = 0;
+    s.push(0);
+    while (!s.isEmpty()) {
+      int v = s.pop();
+      if (visited[v]) continue;
+      visited[v] = true;
+      count++;
+      for (int w : adj[v])
+	if (!visited[w])
+	  s.push(w);
+    }
+    reached[0] = count;
+    return (System.nanoTime() - start) / 1e6;
+  }
+  /** Prints the cost of the push/pop and depth-first search workloads
+    * for each stack. */
+  protected static void compareStacks() {
+    int[][] adj = randomGraph(new Random(42));
+    int maxFrontier = GRAPH_VERTICES * GRAPH_DEGREE + 1;
+    System.out.println(ELEMENTS + " elements pushed and popped (ns/operation),"
+		       + " depth-first search of " + GRAPH_VERTICES
+		       + " vertices (ms):");
+    int expected = -1;
+    for (int i = 0; i < STACKS.length; i++) {
+      int[] reached = new int[1];
+      for (int w = 0; w < WARMUPS; w++) {
+	pushPop(newStack(i, ELEMENTS));
+	depthFirst(newStack(i, maxFrontier), adj, reached);
+      }
+      double p = pushPop(newStack(i, ELEMENTS));
+      double d = depthFirst(newStack(i, maxFrontier), adj, reached);
+      if (expected < 0) expected = reached[0];
+      else if (expected != reached[0])
+	throw new IllegalStateException("searches differ");
+      System.out.printf("  %-22s %8.1f %8.1f%n", STACKS[i], p, d);
+    }
+  }
+
+  public static void main(String[] args) {
+    compareStacks();
+  }
+}
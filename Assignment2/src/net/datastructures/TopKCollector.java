@@ -0,0 +1,109 @@
+package net.datastructures;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+
+/**
+ * Bounded collector of the k entries with the smallest keys out of a
+ * stream of offers.  The entries kept are stored in a
+ * {@link HeapPriorityQueue} ordered by the reverse comparator, so the
+ * largest kept key is at the root: once k entries are kept, an offer
+ * whose key is not smaller than it is rejected in O(1) time, and an
+ * accepted offer replaces the root in O(log k) time.  Memory stays
+ * O(k) however many entries are offered.
+ *
+ * <p>A collector is not thread-safe; to select in parallel, give each
+ * thread its own collector and {@link #merge merge} them at the end.
+ */
+public class TopKCollector<K,V> {
+  protected final int k;		// number of entries to keep
+  protected final Comparator<K> comp;	// comparator for the keys
+  protected HeapPriorityQueue<K,V> heap;	// kept entries, largest key first
+  /** Creates a collector of the k smallest keys, with the default
+    * comparator. */
+  public TopKCollector(int k) { this(k, new DefaultComparator<K>()); }
+  /** Creates a collector of the k smallest keys according to the given
+    * comparator.
+    * @throws IllegalArgumentException if k is less than 1 */
+  public TopKCollector(int k, final Comparator<K> c) {
+    if (k < 1)
+      throw new IllegalArgumentException("k must be positive");
+    this.k = k;
+    comp = c;
+    heap = new HeapPriorityQueue<K,V>(new Comparator<K>() {
+	public int compare(K a, K b) { return c.compare(b, a); }
+      });
+  }
+  /** Returns the number of entries kept. */
+  public int size() { return heap.size(); }
+  /** Returns the maximum number of entries kept. */
+  public int capacity() { return k; }
+  /** Returns whether k entries are kept, so offers must beat the
+    * threshold. */
+  public boolean isFull() { return heap.size() == k; }
+  /** Returns the largest key kept: once the collector is full, only
+    * smaller keys are accepted. */
+  public K threshold() throws EmptyPriorityQueueException {
+    return heap.min().getKey();
+  }
+  /** Offers a key-value pair and returns whether it was kept (possibly
+    * evicting the entry with the largest key). */
+  public boolean offer(K key, V value) throws InvalidKeyException {
+    heap.checkKey(key);		// also when the offer would be rejected
+    if (heap.size() < k) {
+      heap.insert(key, value);
+      return true;
+    }
+    if (comp.compare(key, heap.min().getKey()) >= 0)
+      return false;		// not competitive: rejected in O(1)
+    heap.replaceMin(key, value);
+    return true;
+  }
+  /** Offers the key-value pairs of a batch of entries and returns how
+    * many were kept.  While the collector has room, the entries are
+    * added with bottom-up heap construction; the rest are offered one
+    * at a time against the threshold. */
+  public int offerAll(Iterable<? extends Entry<K,V>> batch)
+    throws InvalidKeyException {
+    Iterator<? extends Entry<K,V>> it = batch.iterator();
+    ArrayList<Entry<K,V>> fill = new ArrayList<Entry<K,V>>();
+    while (heap.size() + fill.size() < k && it.hasNext())
+      fill.add(it.next());
+    heap.insertAll(fill);
+    int kept = fill.size();
+    while (it.hasNext()) {
+      Entry<K,V> e = it.next();
+      if (offer(e.getKey(), e.getValue()))
+	kept++;
+    }
+    return kept;
+  }
+  /** Offers all the entries kept by another collector, for example one
+    * filled by another thread, so this collector then holds the k
+    * smallest keys of both.  Merging a collector with itself leaves it
+    * unchanged. */
+  public void merge(TopKCollector<K,V> other) throws InvalidKeyException {
+    if (other == this)
+      return;		// its entries would be offered twice
+    ArrayList<Entry<K,V>> L = new ArrayList<Entry<K,V>>(other.size());
+    for (Iterator<Entry<K,V>> it = other.heap.heap.iterator(); it.hasNext(); )
+      L.add(it.next());
+    offerAll(L);
+  }
+  /** Returns the entries kept, in nondecreasing key order. */
+  public Iterable<Entry<K,V>> sortedEntries() {
+    ArrayList<Entry<K,V>> L = new ArrayList<Entry<K,V>>(heap.size());
+    for (Iterator<Entry<K,V>> it = heap.heap.iterator(); it.hasNext(); )
+      L.add(it.next());
+    Collections.sort(L, new Comparator<Entry<K,V>>() {
+	public int compare(Entry<K,V> a, Entry<K,V> b) {
+	  return comp.compare(a.getKey(), b.getKey());
+	}
+      });
+    PositionList<Entry<K,V>> sorted = new NodePositionList<Entry<K,V>>();
+    for (Entry<K,V> e : L)
+      sorted.addLast(e);
+    return sorted;
+  }
+}
@@ -0,0 +1,81 @@
+package net.datastructures;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Realization of a dictionary by means of a treap.  Each node gets a
+ * random priority when its entry is inserted, and the tree is kept a
+ * binary search tree on keys and a heap on priorities (no node has a
+ * higher priority than its parent) by single rotations.  The shape is
+ * that of a binary search tree built by inserting the entries in
+ * random order, whatever the actual order was, so all operations take
+ * O(log n) expected time.
+ *
+ * @see SplayTree
+ */
+public class Treap<K,V>
+  extends BinarySearchTree<K,V> implements Dictionary<K,V> {
+  protected Random rand = new Random();	// source of node priorities
+  public Treap() { super(); }
+  public Treap(Comparator<K> C) { super(C); }
+  /** Creates a Treap whose priorities are drawn from the given seed, so
+    * that its shape is reproducible. */
+  public Treap(Comparator<K> C, long seed) {
+    super(C);
+    rand = new Random(seed);
+  }
+  /** Nested class for the nodes of a treap */
+  protected static class TreapNode<K,V> extends BTNode<Entry<K,V>> {
+    protected int priority;	// we add a priority field to a BTNode
+    TreapNode() {/* default constructor */}
+    /** Preferred constructor */
+    TreapNode(Entry<K,V> element, BTPosition<Entry<K,V>> parent,
+	      BTPosition<Entry<K,V>> left, BTPosition<Entry<K,V>> right) {
+      super(element, parent, left, right);
+    }
+    public int getPriority() { return priority; }
+    public void setPriority(int p) { priority = p; }
+  }
+  /** Creates a new tree node. */
+  protected BTPosition<Entry<K,V>> createNode(Entry<K,V> element,
+      BTPosition<Entry<K,V>> parent, BTPosition<Entry<K,V>> left,
+      BTPosition<Entry<K,V>> right) {
+    return new TreapNode<K,V>(element,parent,left,right); // a treap node
+  }
+  /** Returns the priority of a node. */
+  protected int priority(Position<Entry<K,V>> p) {
+    return ((TreapNode<K,V>) p).getPriority();
+  }
+  /** Inserts an entry into the tree and returns the newly created entry. */
+  public Entry<K,V> insert(K k, V x) throws InvalidKeyException {
+    Entry<K,V> toReturn = super.insert(k, x);
+    Position<Entry<K,V>> v = actionPos;	// the new internal node
+    ((TreapNode<K,V>) v).setPriority(rand.nextInt());
+    while (!isRoot(v) && priority(v) > priority(parent(v)))
+      rotate(v);		// move up to restore the heap order
+    return toReturn;
+  }
+  /** Removes and returns the given entry from the dictionary. */
+  public Entry<K,V> remove(Entry<K,V> ent) throws InvalidEntryException {
+    checkEntry(ent);		// may throw an InvalidEntryException
+    Position<Entry<K,V>> v = ((BSTEntry<K,V>) ent).position();
+    while (isInternal(left(v)) && isInternal(right(v))) {
+      // rotate the child of higher priority above v, moving v down
+      if (priority(left(v)) > priority(right(v)))
+	rotate(left(v));
+      else
+	rotate(right(v));
+    }
+    return super.remove(ent);	// v now has an external child
+  }
+  /**
+    * Gives a priority to a node created by a bulk build.  The priority
+    * is drawn at random from a band of values below those of all
+    * shallower levels, so the built tree is a heap on priorities.
+    */
+  protected void initBuiltNode(Position<Entry<K,V>> v, int depth, int maxDepth) {
+    long band = (1L << 32) / (maxDepth + 1);
+    long p = Integer.MAX_VALUE - depth * band - (long) (rand.nextDouble() * band);
+    ((TreapNode<K,V>) v).setPriority((int) p);
+  }
+}
@@ -0,0 +1,122 @@
+package net.datastructures;
+
+/**
+ * Counters describing the rebalancing work and search cost of one
+ * binary search tree.  A tree only records into a TreeMetrics object
+ * after {@link BinarySearchTree#enableMetrics() enableMetrics} has been
+ * called; until then the only cost is a null check at each recording
+ * point.  The counters can be read as an immutable {@link Snapshot}.
+ *
+ * <p>Recording is not synchronized; like the trees themselves, a
+ * TreeMetrics object must not be updated by several threads at once.
+ */
+public class TreeMetrics {
+  /** Number of buckets of the search depth histogram; searches
+    * ending deeper than the last bucket are counted in it. */
+  public static final int DEPTH_BUCKETS = 64;
+  protected long restructures;	// trinode restructurings
+  protected long rotations;	// single rotations (splay trees, treaps)
+  protected long recolorings;	// red-black recoloring steps
+  protected long searches;	// searches from the root
+  protected long fingerSearches;	// searches from the finger
+  protected long fingerPath;	// nodes visited by searches from the finger
+  protected long[] depths = new long[DEPTH_BUCKETS];	// searches by final depth
+
+  /** Records a trinode restructuring (a single or double rotation). */
+  public void recordRestructure() { restructures++; }
+  /** Records a single rotation, done outside a trinode restructuring. */
+  public void recordRotation() { rotations++; }
+  /** Records a recoloring step of a red-black tree. */
+  public void recordRecoloring() { recolorings++; }
+  /** Records a search from the root that ended at the given depth. */
+  public void recordSearch(int depth) {
+    searches++;
+    depths[Math.min(depth, DEPTH_BUCKETS - 1)]++;
+  }
+  /** Records a search from the finger that visited the given number of
+    * nodes, climbing up and then down the tree. */
+  public void recordFingerSearch(int pathLength) {
+    fingerSearches++;
+    fingerPath += pathLength;
+  }
+  /** Resets all counters to zero. */
+  public void reset() {
+    restructures = rotations = recolorings = searches = 0;
+    fingerSearches = fingerPath = 0;
+    depths = new long[DEPTH_BUCKETS];
+  }
+  /** Returns an immutable copy of the counters, together with the
+    * current shape of the given tree. */
+  public <K,V> Snapshot snapshot(BinarySearchTree<K,V> tree) {
+    return new Snapshot(this, tree.size(), tree.size - tree.size(),
+			tree.treeHeight());
+  }
+
+  /** Immutable view of the metrics of a tree at one moment. */
+  public static class Snapshot {
+    /** Number of trinode restructurings performed. */
+    public final long restructures;
+    /** Number of single rotations performed. */
+    public final long rotations;
+    /** Number of red-black recoloring steps performed. */
+    public final long recolorings;
+    /** Number of searches from the root. */
+    public final long searches;
+    /** Number of searches from the finger. */
+    public final long fingerSearches;
+    /** Number of entries in the tree. */
+    public final int entries;
+    /** Number of external nodes in the tree. */
+    public final int externalNodes;
+    /** Height of the tree, counting internal nodes only. */
+    public final int height;
+    /** Smallest possible height for this many entries,
+      * ceil(log2(entries + 1)). */
+    public final int minimumHeight;
+    private final long[] depths;
+    private final long fingerPath;
+    Snapshot(TreeMetrics m, int n, int external, int h) {
+      restructures = m.restructures;
+      rotations = m.rotations;
+      recolorings = m.recolorings;
+      searches = m.searches;
+      fingerSearches = m.fingerSearches;
+      fingerPath = m.fingerPath;
+      depths = m.depths.clone();
+      entries = n;
+      externalNodes = external;
+      height = h;
+      minimumHeight = 32 - Integer.numberOfLeadingZeros(n);
+    }
+    /** Returns the number of searches that ended at the given depth. */
+    public long searchesAtDepth(int depth) {
+      return (depth < 0 || depth >= DEPTH_BUCKETS) ? 0 : depths[depth];
+    }
+    /** Returns the average depth at which searches ended. */
+    public double averageSearchDepth() {
+      if (searches == 0) return 0;
+      long sum = 0;
+      for (int d = 0; d < DEPTH_BUCKETS; d++)
+	sum += d * depths[d];
+      return (double) sum / searches;
+    }
+    /** Returns the average number of nodes visited by searches from
+      * the finger. */
+    public double averageFingerPath() {
+      return (fingerSearches == 0) ? 0 : (double) fingerPath / fingerSearches;
+    }
+    /** Returns the ratio of the height to the smallest possible height. */
+    public double heightRatio() {
+      return (minimumHeight == 0) ? 1 : (double) height / minimumHeight;
+    }
+    public String toString() {
+      return "entries=" + entries + ", externalNodes=" + externalNodes
+	+ ", height=" + height + " (minimum " + minimumHeight + ")"
+	+ ", restructures=" + restructures + ", rotations=" + rotations
+	+ ", recolorings=" + recolorings
+	+ ", searches=" + searches + ", avgSearchDepth=" + averageSearchDepth()
+	+ ", fingerSearches=" + fingerSearches
+	+ ", avgFingerPath=" + averageFingerPath();
+    }
+  }
+}
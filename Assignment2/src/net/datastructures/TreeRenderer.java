@@ -0,0 +1,105 @@
+package net.datastructures;
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Headless renderer that writes a binary search tree as a Graphviz DOT
+ * graph, for example to be turned into an image with
+ * <tt>dot -Tsvg tree.dot -o tree.svg</tt>.  The graph is streamed to a
+ * writer in a single O(n) pass and needs no display.
+ *
+ * <p>For very large trees a maximum depth can be given: each subtree
+ * rooted at that depth is collapsed into a single triangle labeled
+ * with the number of entries it contains, so the output stays small
+ * enough to be laid out while still showing the shape of the top of
+ * the tree.
+ *
+ * @see ExtendedAVLTree#print(AVLTree)
+ */
+public class TreeRenderer {
+  /** Writes the whole tree, one DOT node per entry. */
+  public static <K,V> void writeDot(BinarySearchTree<K,V> tree, Writer out)
+    throws IOException {
+    writeDot(tree, out, Integer.MAX_VALUE);
+  }
+  /** Writes the tree to the named file, collapsing the subtrees rooted
+    * at depth maxDepth. */
+  public static <K,V> void writeDot(BinarySearchTree<K,V> tree,
+      String fileName, int maxDepth) throws IOException {
+    Writer out = new BufferedWriter(new FileWriter(fileName));
+    try {
+      writeDot(tree, out, maxDepth);
+    } finally {
+      out.close();
+    }
+  }
+  /** Writes the tree, collapsing the subtrees rooted at depth maxDepth
+    * (the root has depth 0).  External nodes are not drawn. */
+  public static <K,V> void writeDot(BinarySearchTree<K,V> tree, Writer out,
+      int maxDepth) throws IOException {
+    out.write("digraph BST {\n");
+    out.write("  node [shape=circle, fontsize=10];\n");
+    if (tree.numEntries > 0)
+      writeSubtree(tree.root, 0, maxDepth, new int[1], out);
+    out.write("}\n");
+    out.flush();
+  }
+  /** Writes the subtree rooted at internal node v, in preorder with an
+    * explicit stack so that degenerate trees cannot overflow the call
+    * stack.  next holds the next free DOT node identifier. */
+  protected static <K,V> void writeSubtree(BTPosition<Entry<K,V>> v, int depth,
+      int maxDepth, int[] next, Writer out) throws IOException {
+    NodeStack<Frame<K,V>> S = new NodeStack<Frame<K,V>>();
+    S.push(new Frame<K,V>(v, depth, -1));
+    while (!S.isEmpty()) {
+      Frame<K,V> f = S.pop();
+      int id = next[0]++;
+      if (f.depth >= maxDepth)	// collapse the whole subtree
+	out.write("  n" + id + " [shape=triangle, label=\""
+		  + countEntries(f.node) + "\"];\n");
+      else {
+	out.write("  n" + id + " [label=\""
+		  + escape(String.valueOf(f.node.element().getKey())) + "\"];\n");
+	BTPosition<Entry<K,V>> left = f.node.getLeft(), right = f.node.getRight();
+	if (isInternal(right))	// pushed first, so written after the left
+	  S.push(new Frame<K,V>(right, f.depth + 1, id));
+	if (isInternal(left))
+	  S.push(new Frame<K,V>(left, f.depth + 1, id));
+      }
+      if (f.parent >= 0)
+	out.write("  n" + f.parent + " -> n" + id + ";\n");
+    }
+  }
+  /** Node still to be written, with its depth and the identifier of
+    * its parent's DOT node (-1 for the root). */
+  protected static class Frame<K,V> {
+    final BTPosition<Entry<K,V>> node;
+    final int depth, parent;
+    Frame(BTPosition<Entry<K,V>> v, int d, int p) { node = v; depth = d; parent = p; }
+  }
+  /** Returns whether a node stores an entry. */
+  protected static <K,V> boolean isInternal(BTPosition<Entry<K,V>> v) {
+    return v != null && v.element() != null;
+  }
+  /** Returns the number of entries in the subtree rooted at v, using an
+    * explicit stack. */
+  protected static <K,V> int countEntries(BTPosition<Entry<K,V>> v) {
+    int count = 0;
+    NodeStack<BTPosition<Entry<K,V>>> S =
+      new NodeStack<BTPosition<Entry<K,V>>>();
+    if (isInternal(v)) S.push(v);
+    while (!S.isEmpty()) {
+      BTPosition<Entry<K,V>> u = S.pop();
+      count++;
+      if (isInternal(u.getLeft())) S.push(u.getLeft());
+      if (isInternal(u.getRight())) S.push(u.getRight());
+    }
+    return count;
+  }
+  /** Escapes a label for use inside a quoted DOT string. */
+  protected static String escape(String s) {
+    return s.replace("\\", "\\\\").replace("\"", "\\\"");
+  }
+}
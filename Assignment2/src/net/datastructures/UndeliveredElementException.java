@@ -0,0 +1,17 @@
+package net.datastructures;
+/**
+ * Runtime exception thrown when an element taken from a queue could
+ * neither be delivered to its target nor put back into the queue.  The
+ * exception carries the element, which the caller then owns, and has
+ * the exception thrown by the target as its cause.
+ * @see MpmcArrayQueue
+ */
+public class UndeliveredElementException extends RuntimeException {
+  protected final Object element;	// element neither delivered nor put back
+  public UndeliveredElementException(String err, Object element, Throwable cause) {
+    super(err, cause);
+    this.element = element;
+  }
+  /** Returns the element that was neither delivered nor put back. */
+  public Object getElement() { return element; }
+}
@@ -4,24 +4,73 @@ import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Scanner;
 import javax.management.InvalidAttributeValueException;
 import net.datastructures.ArrayListCompleteBinaryTree;
+import net.datastructures.DefaultComparator;
 import net.datastructures.EmptyPriorityQueueException;
+import net.datastructures.HeapPriorityQueue;
+import net.datastructures.InstrumentedPriorityQueue;
+import net.datastructures.MonotoneIntPriorityQueue;
 import net.datastructures.Position;
+import net.datastructures.PriorityQueue;
+import net.datastructures.PriorityQueueMetrics;
 
 /**
  * @author Ludwig Tranheden 5129849.
  *
  */
 public class TaskScheduler {
+	/**
+	 * Runs the scheduler from the command line:
+	 * java TaskScheduler file1 file2 m [-monotone] [-metrics]
+	 * With -monotone the release-times are kept in a MonotoneIntPriorityQueue instead of a heap.
+	 * With -metrics the operations on the release-time queue are recorded and printed afterwards.
+	 */
+	public static void main(String[] args) throws InvalidAttributeValueException, FileNotFoundException {
+		boolean monotone = false;
+		PriorityQueueMetrics metrics = null;
+		for (int i = 3; i < args.length; i++) { //Options follow the three required arguments.
+			if (args[i].equals("-monotone"))
+				monotone = true;
+			else if (args[i].equals("-metrics"))
+				metrics = new PriorityQueueMetrics();
+			else
+				usage();
+		}
+		if (args.length < 3)
+			usage();
+		int m = 0;
+		try {
+			m = Integer.parseInt(args[2]);
+		} catch (NumberFormatException e) {
+			usage();
+		}
+		scheduler(args[0], args[1], m, monotone, metrics);
+		if (metrics != null)
+			System.out.println(metrics.snapshot());
+	}
+
+	/**
+	 * Prints how to run the scheduler and exits.
+	 */
+	private static void usage() {
+		System.err.println("Usage: java TaskScheduler file1 file2 m [-monotone] [-metrics]");
+		System.exit(1);
+	}
+
 	/**
 	 * Constructs from file1 a feasible schedule for the task set on a processor with m identical
 	 * cores by using the EDF strategy and write the feasible schedule to file2.
 	 * 			
 	 * Time-complexity:
 	 * Reading all the tasks from the file takes linear time. 
-	 * The insertion into the first queue is O(log(n)) time and n insertions will be made. 
+	 * The first queue is built from all the tasks at once by bottom-up heap construction in O(n) time. 
+	 * Tasks with equal release-times are moved to the second queue in the order they were read, which takes
+	 * O(n*log(n)) time in total.
 	 * The removal from the first queue is O(log(n)) time and n removals will be made.
 	 * The insertion into the second queue is O(log(n)) time and n insertions will be made.
 	 * The removal from the second queue is O(log(n)) time and n removals will be made.
@@ -29,7 +78,31 @@ public class TaskScheduler {
 	 * Hence the worst case time-complexity is O(n*log(n)).
 	 */
 	static void scheduler(String file1, String file2, int m) throws InvalidAttributeValueException, FileNotFoundException {
-		MyHeapPriorityQueue<Integer, Task> que1 = new MyHeapPriorityQueue<Integer, Task>(); //Priority heap queue for the release-times.
+		scheduler(file1, file2, m, false);
+	}
+
+	/**
+	 * Same as scheduler(file1, file2, m), but if monotone is true the release-times are kept in a
+	 * MonotoneIntPriorityQueue (a radix heap) instead of a heap. This suits the release-times, which are
+	 * only removed in increasing order; the deadline-times are not monotone (a task released later may
+	 * have an earlier deadline than one already removed), so they always use a heap.
+	 *
+	 * Time-complexity:
+	 * With monotone true, the n insertions into the first queue take O(1) time each and the n removals
+	 * take O(log(C)) amortized time each, where C is the range of the release-times.
+	 */
+	static void scheduler(String file1, String file2, int m, boolean monotone) throws InvalidAttributeValueException, FileNotFoundException {
+		scheduler(file1, file2, m, monotone, null);
+	}
+
+	/**
+	 * Same as scheduler(file1, file2, m, monotone), but if metrics is not null the operations on the
+	 * release-time queue are recorded into it: comparisons, sift depths and latencies, which can then be
+	 * read with metrics.snapshot().
+	 */
+	static void scheduler(String file1, String file2, int m, boolean monotone, PriorityQueueMetrics metrics) throws InvalidAttributeValueException, FileNotFoundException {
+		ArrayList<Integer> releases = new ArrayList<Integer>(); //Release-times of the tasks read.
+		ArrayList<Task> tasks = new ArrayList<Task>(); //Tasks read, in the same order.
 		MyHeapPriorityQueue<Integer, Task> que2 = new MyHeapPriorityQueue<Integer, Task>(); //Priority heap queue for the deadline-times.
 		File read = new File(file1); //Read from file1.
 		Scanner sc;
@@ -52,7 +125,7 @@ public class TaskScheduler {
 						} 
 						else {   
 							deadlinet = sc.nextInt();
-							task = new Task(name, releaset, deadlinet);
+							task = new Task(name, releaset, deadlinet, tasks.size());
 						}
 					} 
 					else {     
@@ -67,7 +140,8 @@ public class TaskScheduler {
 					sc.close();
 					throw new InvalidAttributeValueException("Input error when reading the attributes of the task " + "''" + temp + "''");
 				}
-				que1.insertTask(task.releaset(), task); //Insert the registered Task to the priority queue sorted by the release-time (The key).
+				releases.add(task.releaset()); //Register the Task and its release-time (The key).
+				tasks.add(task);
 
 			} 
 			sc.close();  // Close scanner
@@ -75,15 +149,36 @@ public class TaskScheduler {
 		} catch (FileNotFoundException e) {
 			throw new FileNotFoundException(file1 + " does not exist.");
 		}
+		PriorityQueue<Integer, Task> que1; //Priority queue for the release-times.
+		if (monotone) {
+			que1 = new MonotoneIntPriorityQueue<Task>();
+			for (int i = 0; i < tasks.size(); i++)
+				que1.insert(releases.get(i), tasks.get(i));
+		}
+		else {
+			Comparator<Integer> comp = new DefaultComparator<Integer>();
+			if (metrics != null)
+				comp = metrics.countingComparator(comp); //Count the comparisons made by the heap.
+			que1 = new HeapPriorityQueue<Integer, Task>( //Priority heap queue built in one pass.
+				releases.toArray(new Integer[releases.size()]), tasks.toArray(new Task[tasks.size()]), comp);
+		}
+		if (metrics != null)
+			que1 = new InstrumentedPriorityQueue<Integer, Task>(que1, metrics); //Record the operations on the queue.
 
 		int time = 0; //Initiate the time.
 		String output = ""; //String to store the output.
 		String entry = "";
 		int coresused = 0; //Initiate the number of cores currently used.
+		ArrayList<Task> released = new ArrayList<Task>(); //Tasks released at the current time.
 		while(!que1.isEmpty()){ //While there still is tasks.
-			while(!que1.isEmpty() && que1.minEntry().releaset() == time){ //While there still is tasks and the release-time corresponds to the current time.
-				que2.insertTask(que1.minEntry().deadlinet(),que1.removeMinTask()); //Insert into the dynamic deadline sorted by the deadline-times (The key). 	
+			while(!que1.isEmpty() && que1.min().getValue().releaset() == time){ //While there still is tasks and the release-time corresponds to the current time.
+				released.add(que1.removeMin().getValue());
 			}
+			Collections.sort(released, Task.INPUT_ORDER); //The queue does not keep ties in input order, so restore it.
+			for (Task t : released) {
+				que2.insertTask(t.deadlinet(), t); //Insert into the dynamic deadline sorted by the deadline-times (The key). 	
+			}
+			released.clear();
 
 			coresused = 0; //The number of cores currently used.
 			while(!que2.isEmpty() && coresused < m){ //While there still is tasks that have been released and there is cores available.
@@ -128,12 +223,21 @@ class Task {
 	private String task;
 	private Integer releaset;
 	private Integer deadlinet;
+	private int order; //Position of the task in the input.
+
+	// Orders tasks as they were read.
+	static final Comparator<Task> INPUT_ORDER = new Comparator<Task>() {
+		public int compare(Task a, Task b) {
+			return Integer.compare(a.order, b.order);
+		}
+	};
 
 	// Constructor.
-	public Task(String task, Integer releaset, Integer deadlinet) { 
+	public Task(String task, Integer releaset, Integer deadlinet, int order) { 
 		this.task = task;
 		this.releaset= releaset;
 		this.deadlinet = deadlinet;
+		this.order = order;
 	}
 
 	// Get methods.
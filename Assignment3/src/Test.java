@@ -22,6 +22,9 @@ public class Test {
 		   /** There is a feasible scheduler on 5 cores */ 
 		   //TaskScheduler.scheduler("/Users/Tranheden/Downloads/test/samples/samplefile2shuffled.txt", "/Users/Tranheden/Downloads/test/feasibleschedule9", 4);
 		   /** There is no feasible schedule on 4 cores */
+
+		   TaskScheduler.scheduler("/Users/Tranheden/Downloads/test/samples/samplefile2shuffled.txt", "/Users/Tranheden/Downloads/test/feasibleschedule10", 5, true);
+		   /** The same schedule as feasibleschedule8, with the release-times in a monotone priority queue */
 		   
 		   
 		   /** The sample task sets are sorted. You can shuffle the tasks and test your program again */  